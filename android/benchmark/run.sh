@@ -0,0 +1,14 @@
+#!/bin/sh
+# Compiles the plugin sources against the SDK stubs and runs PitchBenchmark on a plain JVM (Java 11 or later)
+# Usage: android/benchmark/run.sh [waveform|path.wav] [frequency] [noise] [seconds] [detectors] [none|filter] [frameSize]
+# Example: android/benchmark/run.sh saw 110 0.6 30 targeted filter
+set -e
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR="$DIR/../libs/TarsosDSP.jar"
+OUT="${TMPDIR:-/tmp}/flutter_fft_benchmark"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -nowarn -encoding UTF-8 -d "$OUT" -cp "$JAR" $(find "$DIR/stubs" "$DIR/src" "$DIR/../src/main/java" -name '*.java')
+java -cp "$OUT:$JAR" com.slins.flutterfft.PitchBenchmark "$@"
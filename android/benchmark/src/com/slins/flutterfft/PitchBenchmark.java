@@ -0,0 +1,214 @@
+package com.slins.flutterfft;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import be.tarsos.dsp.pitch.PitchDetector;
+
+/**
+ * Runs an audio source through PitchModel and its processor chain on a plain JVM, the same stages a recorder session runs
+ * Reports throughput (frames per second and speed relative to real time), accuracy (detection rate and cents error) and the stage timings
+ * Usage: android/benchmark/run.sh [waveform|path.wav] [frequency] [noise] [seconds] [yin,mpm,...|yin_int|targeted] [none|filter] [frameSize]
+ * The tuning, and so the targeted mode and the pre-filter band, is the standard guitar tuning
+ */
+public class PitchBenchmark {
+    public static final int DEFAULT_SAMPLE_RATE = 44100;
+    public static final int DEFAULT_FRAME_SIZE = 5292; // SAMPLES READ PER FRAME ON A TYPICAL DEVICE AT 44.1 kHz
+    public static final List<Object> STANDARD_TUNING = Arrays.<Object>asList("E4", "B3", "G3", "D3", "A2", "E2");
+    public static final String TARGETED = "targeted";
+
+    private final TimedAudioSource audioSource;
+    private final PitchModel pitchModel = new PitchModel();
+    private final AudioModel audioModel = new AudioModel();
+    private final PitchDetector pitchDetector;
+    private final int frameSize;
+    private final float expectedFrequency;
+
+    private int frames = 0;
+    private int detectedFrames = 0;
+    private double centsErrorSum = 0;
+    private double maxCentsError = 0;
+    private long processNanos = 0;
+
+    /**
+     * Wraps the benchmarked source, so the time spent generating or reading samples is left out of the throughput
+     */
+    private static class TimedAudioSource implements AudioSource {
+        private final AudioSource source;
+        private long readNanos = 0;
+        private boolean ended = false;
+
+        TimedAudioSource(AudioSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(short[] audioData, int offset, int size) {
+            long start = System.nanoTime();
+            int read = source.read(audioData, offset, size);
+            readNanos += System.nanoTime() - start;
+            ended = read < 0;
+            return read;
+        }
+
+        @Override
+        public void start() {
+            source.start();
+        }
+
+        @Override
+        public void stop() {
+            source.stop();
+        }
+
+        @Override
+        public void release() {
+            source.release();
+        }
+
+        @Override
+        public boolean isInitialized() {
+            return source.isInitialized();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return source.isRunning();
+        }
+
+        @Override
+        public int getSampleRate() {
+            return source.getSampleRate();
+        }
+
+        @Override
+        public long getCaptureTimeNanos() {
+            return source.getCaptureTimeNanos();
+        }
+    }
+
+    /**
+     * Sets up the pitch model the way startRecorder does
+     * @param audioSource Source to read from, in max speed mode for throughput numbers
+     * @param detectors Detector names as passed from Dart, or targeted for the targeted mode
+     * @param frameSize Number of samples per frame
+     * @param expectedFrequency Frequency the source plays, 0 to skip accuracy
+     * @param preFilter Whether the pre-filter stage runs before detection
+     */
+    public PitchBenchmark(AudioSource audioSource, List<String> detectors, int frameSize, float expectedFrequency, boolean preFilter) {
+        this.audioSource = new TimedAudioSource(audioSource);
+        this.frameSize = frameSize;
+        this.expectedFrequency = expectedFrequency;
+        int sampleRate = audioSource.getSampleRate();
+
+        boolean targeted = detectors.contains(TARGETED);
+        List<String> names = targeted ? Collections.singletonList(DetectorFactory.YIN) : detectors;
+        ShortPitchDetector shortPitchDetector = DetectorFactory.createShort(names, sampleRate, frameSize);
+        pitchDetector = (shortPitchDetector == null) ? DetectorFactory.create(names, sampleRate, frameSize) : null;
+
+        FlutterFftPlugin.bufferSize = frameSize * 2;
+        audioModel.setAudioSource(this.audioSource);
+        audioModel.setAudioData(new short[frameSize]);
+        audioModel.setFloatData(new float[frameSize]);
+
+        pitchModel.getFrequenciesAndOctaves(null);
+        pitchModel.setShortPitchDetector(shortPitchDetector);
+        pitchModel.setPitchDetector(pitchDetector);
+        pitchModel.setTolerance(1.0f);
+        pitchModel.setTuning(STANDARD_TUNING);
+        pitchModel.parseTuning();
+        pitchModel.setTargetedMode(targeted, TargetedTuner.DEFAULT_HARMONICS);
+        pitchModel.setPreFilterOptions(preFilter, PreFilter.DEFAULT_STAGES, false);
+
+        pitchModel.configureTargetedMode(sampleRate, frameSize);
+        pitchModel.configurePreFilter(sampleRate);
+        pitchModel.getCaptureHub().start(sampleRate, frameSize);
+        pitchModel.configureChain(audioModel, sampleRate, 1);
+    }
+
+    /**
+     * Runs frames through the chain until the source ends or the frame limit is reached
+     * Accuracy is taken from the pitch history, which holds every frame that passed the map stage
+     * @param maxFrames Maximum number of frames to process
+     */
+    public void run(int maxFrames) {
+        pitchModel.getPitchHistory().setCapacity(maxFrames);
+        audioSource.start();
+
+        long start = System.nanoTime();
+        while (frames < maxFrames) {
+            pitchModel.updateFrequencyAndNote(null, audioModel);
+            if (audioSource.ended) {
+                break;
+            }
+            frames++;
+        }
+        processNanos = System.nanoTime() - start - audioSource.readNanos;
+        audioSource.stop();
+
+        double[] history = pitchModel.getPitchHistory().since(0);
+        for (int i = 0; i < history.length; i += PitchHistory.FIELDS) {
+            detectedFrames++;
+            if (expectedFrequency > 0) {
+                double error = Math.abs(DeltaEmitter.centsBetween((float) history[i + 1], expectedFrequency));
+                centsErrorSum += error;
+                maxCentsError = Math.max(maxCentsError, error);
+            }
+        }
+    }
+
+    public void release() {
+        audioSource.release();
+        DetectorFactory.release(pitchDetector);
+    }
+
+    /**
+     * @return One line summary of the run, followed by the mean time of each stage
+     */
+    @SuppressWarnings("unchecked")
+    public String report() {
+        double seconds = processNanos / 1e9;
+        double audioSeconds = (double) frames * frameSize / audioSource.getSampleRate();
+        StringBuilder report = new StringBuilder(String.format(Locale.US,
+                "frames=%d detected=%.1f%% meanError=%.2fc maxError=%.2fc frames/s=%.0f realtime=x%.0f",
+                frames,
+                frames == 0 ? 0 : 100.0 * detectedFrames / frames,
+                detectedFrames == 0 ? 0 : centsErrorSum / detectedFrames,
+                maxCentsError,
+                seconds == 0 ? 0 : frames / seconds,
+                seconds == 0 ? 0 : audioSeconds / seconds));
+
+        report.append("\nstages:");
+        for (Map.Entry<String, Object> stage : pitchModel.getStageTimings().entrySet()) {
+            Map<String, Object> timing = (Map<String, Object>) stage.getValue();
+            report.append(String.format(Locale.US, " %s=%.3fms", stage.getKey(), (Double) timing.get("meanMillis")));
+        }
+        return report.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = args.length > 0 ? args[0] : SyntheticAudioSource.WAVEFORM_STRINGS;
+        float frequency = args.length > 1 ? Float.parseFloat(args[1]) : 82.41f;
+        float noise = args.length > 2 ? Float.parseFloat(args[2]) : 0.1f;
+        float seconds = args.length > 3 ? Float.parseFloat(args[3]) : 30;
+        List<String> detectors = Arrays.asList((args.length > 4 ? args[4] : DetectorFactory.YIN).split(","));
+        String filter = args.length > 5 ? args[5] : "none";
+        int frameSize = args.length > 6 ? Integer.parseInt(args[6]) : DEFAULT_FRAME_SIZE;
+
+        AudioSource audioSource;
+        if (input.endsWith(".wav") || input.endsWith(".pcm")) {
+            audioSource = new FileAudioSource(input, DEFAULT_SAMPLE_RATE, 1, false, false);
+        } else {
+            audioSource = new SyntheticAudioSource(DEFAULT_SAMPLE_RATE, input, frequency, 3, noise, 1, false);
+        }
+
+        PitchBenchmark benchmark = new PitchBenchmark(audioSource, detectors, frameSize, frequency, "filter".equals(filter));
+        benchmark.run((int) (seconds * audioSource.getSampleRate() / frameSize));
+        benchmark.release();
+
+        System.out.println(detectors + " " + filter + " " + input + " " + frequency + " Hz: " + benchmark.report());
+    }
+}
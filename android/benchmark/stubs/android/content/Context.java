@@ -0,0 +1,18 @@
+package android.content;
+
+public class Context {
+    public static final int MODE_PRIVATE = 0;
+    public static final String AUDIO_SERVICE = "audio";
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        return null;
+    }
+
+    public Object getSystemService(String name) {
+        return null;
+    }
+}
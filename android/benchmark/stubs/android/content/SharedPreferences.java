@@ -0,0 +1,21 @@
+package android.content;
+
+public interface SharedPreferences {
+    boolean contains(String key);
+    int getInt(String key, int defaultValue);
+    long getLong(String key, long defaultValue);
+    float getFloat(String key, float defaultValue);
+    String getString(String key, String defaultValue);
+    Editor edit();
+
+    interface Editor {
+        Editor putInt(String key, int value);
+        Editor putLong(String key, long value);
+        Editor putFloat(String key, float value);
+        Editor putString(String key, String value);
+        Editor remove(String key);
+        Editor clear();
+        void apply();
+        boolean commit();
+    }
+}
@@ -0,0 +1,5 @@
+package android.content.pm;
+
+public class PackageManager {
+    public static final int PERMISSION_GRANTED = 0;
+}
@@ -0,0 +1,6 @@
+package android.media;
+
+public class AudioFormat {
+    public static final int ENCODING_PCM_16BIT = 2;
+    public static final int CHANNEL_IN_MONO = 16;
+}
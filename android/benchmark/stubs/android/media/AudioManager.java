@@ -0,0 +1,9 @@
+package android.media;
+
+public class AudioManager {
+    public static final String PROPERTY_OUTPUT_SAMPLE_RATE = "android.media.property.OUTPUT_SAMPLE_RATE";
+
+    public String getProperty(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package android.media;
+
+/**
+ * No microphone on the JVM: the recorder never initializes, benchmarks use the file and synthetic sources
+ */
+public class AudioRecord {
+    public static final int STATE_UNINITIALIZED = 0;
+    public static final int STATE_INITIALIZED = 1;
+    public static final int RECORDSTATE_STOPPED = 1;
+    public static final int RECORDSTATE_RECORDING = 3;
+    public static final int SUCCESS = 0;
+    public static final int ERROR = -1;
+    public static final int ERROR_BAD_VALUE = -2;
+
+    public AudioRecord(int audioSource, int sampleRate, int channelConfig, int audioFormat, int bufferSize) {
+    }
+
+    public static int getMinBufferSize(int sampleRate, int channelConfig, int audioFormat) {
+        return ERROR_BAD_VALUE;
+    }
+
+    public int getState() {
+        return STATE_UNINITIALIZED;
+    }
+
+    public int getRecordingState() {
+        return RECORDSTATE_STOPPED;
+    }
+
+    public void startRecording() {
+    }
+
+    public void stop() {
+    }
+
+    public void release() {
+    }
+
+    public int read(short[] audioData, int offset, int size) {
+        return ERROR;
+    }
+
+    public int getTimestamp(AudioTimestamp timestamp, int timebase) {
+        return ERROR;
+    }
+}
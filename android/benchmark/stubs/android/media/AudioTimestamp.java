@@ -0,0 +1,8 @@
+package android.media;
+
+public class AudioTimestamp {
+    public static final int TIMEBASE_MONOTONIC = 0;
+
+    public long framePosition;
+    public long nanoTime;
+}
@@ -0,0 +1,23 @@
+package android.os;
+
+/**
+ * No main looper on the JVM: posted events and tickers are dropped, benchmarks drive the frames themselves
+ */
+public class Handler {
+    public Handler(Looper looper) {
+    }
+
+    public boolean post(Runnable runnable) {
+        return false;
+    }
+
+    public boolean postDelayed(Runnable runnable, long delayMillis) {
+        return false;
+    }
+
+    public void removeCallbacks(Runnable runnable) {
+    }
+
+    public void removeCallbacksAndMessages(Object token) {
+    }
+}
@@ -0,0 +1,20 @@
+package io.flutter.embedding.engine.plugins;
+
+import android.content.Context;
+
+import io.flutter.plugin.common.BinaryMessenger;
+
+public interface FlutterPlugin {
+    void onAttachedToEngine(FlutterPluginBinding binding);
+    void onDetachedFromEngine(FlutterPluginBinding binding);
+
+    class FlutterPluginBinding {
+        public BinaryMessenger getBinaryMessenger() {
+            return null;
+        }
+
+        public Context getApplicationContext() {
+            return null;
+        }
+    }
+}
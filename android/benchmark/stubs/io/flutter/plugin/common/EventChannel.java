@@ -0,0 +1,20 @@
+package io.flutter.plugin.common;
+
+public class EventChannel {
+    public EventChannel(BinaryMessenger messenger, String name) {
+    }
+
+    public void setStreamHandler(StreamHandler handler) {
+    }
+
+    public interface EventSink {
+        void success(Object event);
+        void error(String errorCode, String errorMessage, Object errorDetails);
+        void endOfStream();
+    }
+
+    public interface StreamHandler {
+        void onListen(Object arguments, EventSink events);
+        void onCancel(Object arguments);
+    }
+}
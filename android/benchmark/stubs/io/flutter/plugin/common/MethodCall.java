@@ -0,0 +1,13 @@
+package io.flutter.plugin.common;
+
+public class MethodCall {
+    public final String method;
+
+    public MethodCall(String method) {
+        this.method = method;
+    }
+
+    public <T> T argument(String key) {
+        return null;
+    }
+}
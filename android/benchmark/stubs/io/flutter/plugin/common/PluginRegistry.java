@@ -0,0 +1,7 @@
+package io.flutter.plugin.common;
+
+public interface PluginRegistry {
+    interface RequestPermissionsResultListener {
+        boolean onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults);
+    }
+}
@@ -0,0 +1,136 @@
+package com.slins.flutterfft;
+
+public class AdaptiveScheduler {
+    private boolean enabled = false; // WHEN DISABLED THE SUBSCRIPTION DURATION IS USED AS IS
+    private int activeIntervalMillis = 0; // INTERVAL WHILE A PITCHED SIGNAL IS PRESENT, 0 USES THE SUBSCRIPTION DURATION
+    private int idleIntervalMillis = 1000; // INTERVAL OF THE ENERGY-ONLY CHECK DURING SILENCE
+    private int frameMillis = 0; // DURATION OF A CAPTURED FRAME, THE SOURCE RESTARTS THIS LONG BEFORE AN IDLE CHECK
+    private float silenceThresholdDb = -50; // FRAMES BELOW THIS LEVEL (dBFS) ARE SILENT
+    private int idleAfterMillis = 2000; // TIME WITHOUT A PITCH BEFORE BACKING OFF
+
+    private boolean idle = false;
+    private long lastPitchMillis = 0;
+
+    /**
+     * Configures the adaptive analysis rate
+     * @param enabled Whether the rate adapts to the signal
+     * @param activeIntervalMillis Interval while a pitched signal is present, 0 uses the subscription duration
+     * @param idleIntervalMillis Interval of the energy-only check during silence
+     * @param silenceThresholdDb Level in dBFS below which a frame is silent
+     * @param idleAfterMillis Time without a pitch before backing off to the idle interval
+     */
+    public void configure(boolean enabled, int activeIntervalMillis, int idleIntervalMillis, float silenceThresholdDb, int idleAfterMillis) {
+        this.enabled = enabled;
+        this.activeIntervalMillis = activeIntervalMillis;
+        this.idleIntervalMillis = idleIntervalMillis;
+        this.silenceThresholdDb = silenceThresholdDb;
+        this.idleAfterMillis = idleAfterMillis;
+        reset(System.currentTimeMillis());
+    }
+
+    /**
+     * During silence the source is stopped between level checks and restarted one frame ahead of each,
+     * so its buffer never overruns and every check reads audio captured right before it
+     * @param frameMillis Duration of a captured frame in milliseconds
+     */
+    public void setFrameMillis(int frameMillis) {
+        this.frameMillis = frameMillis;
+    }
+
+    /**
+     * @return Time the source runs before an idle check, so a full frame is captured when it reads
+     */
+    public int getFrameMillis() {
+        return frameMillis;
+    }
+
+    /**
+     * Starts a session at full rate
+     * @param nowMillis Current time in milliseconds
+     */
+    public void reset(long nowMillis) {
+        idle = false;
+        lastPitchMillis = nowMillis;
+    }
+
+    /**
+     * Decides whether a captured frame goes through pitch detection
+     * Idle frames only pay for the level check, a loud frame leaves idle mode and is analysed right away
+     * @param audioData Captured samples
+     * @param length Number of valid samples
+     * @param nowMillis Current time in milliseconds
+     * @return true if the frame should be analysed
+     */
+    public boolean shouldAnalyze(short[] audioData, int length, long nowMillis) {
+        if (!enabled) {
+            return true;
+        }
+
+        boolean loud = levelDb(audioData, length) >= silenceThresholdDb;
+
+        if (idle) {
+            if (!loud) {
+                return false;
+            }
+            reset(nowMillis);
+            return true;
+        }
+
+        if (!loud && nowMillis - lastPitchMillis >= idleAfterMillis) {
+            idle = true;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Keeps the scheduler at full rate while pitches are detected
+     * @param pitched Whether the analysed frame had a pitch
+     * @param nowMillis Current time in milliseconds
+     */
+    public void onDetection(boolean pitched, long nowMillis) {
+        if (pitched) {
+            lastPitchMillis = nowMillis;
+        }
+    }
+
+    /**
+     * While idle the delay ends when the source has to restart, one frame before the next level check,
+     * so the checks are idleIntervalMillis apart and a returning signal waits up to that long before it is analysed
+     * @param subsDurationMillis Subscription duration set from Dart
+     * @return Delay before the next frame in milliseconds
+     */
+    public int nextDelayMillis(int subsDurationMillis) {
+        if (!enabled) {
+            return subsDurationMillis;
+        }
+        if (idle) {
+            return Math.max(0, idleIntervalMillis - frameMillis);
+        }
+        return activeIntervalMillis > 0 ? activeIntervalMillis : subsDurationMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * Calculates the RMS level of 16-bit samples
+     * @param audioData Samples
+     * @param length Number of samples
+     * @return Level in dBFS, -Infinity for digital silence
+     */
+    public static float levelDb(short[] audioData, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += (long) audioData[i] * audioData[i];
+        }
+        double rms = Math.sqrt((double) sum / Math.max(1, length)) / 32768.0;
+        return (float) (20 * Math.log10(rms));
+    }
+}
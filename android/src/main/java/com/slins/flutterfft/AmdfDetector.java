@@ -0,0 +1,55 @@
+package com.slins.flutterfft;
+
+import be.tarsos.dsp.pitch.AMDF;
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchDetector;
+
+public class AmdfDetector implements PitchDetector {
+    private final AMDF amdf;
+    private final float sampleRate;
+    private final PitchDetectionResult result = new PitchDetectionResult();
+
+    /**
+     * TarsosDSP's AMDF always reports a probability of -1, this wrapper rates its estimates
+     * by how well the frame repeats at the detected period, so they pass minConfidence and can be weighed in an ensemble
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     */
+    public AmdfDetector(float sampleRate, int frameSize) {
+        this.amdf = new AMDF(sampleRate, frameSize);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public PitchDetectionResult getPitch(float[] audioBuffer) {
+        float pitch = amdf.getPitch(audioBuffer).getPitch();
+        boolean pitched = pitch > 0;
+        result.setPitch(pitched ? pitch : -1);
+        result.setPitched(pitched);
+        result.setProbability(pitched ? periodicity(audioBuffer, sampleRate / pitch) : 0);
+        return result;
+    }
+
+    /**
+     * Measures how well a frame repeats after a period
+     * One minus the squared difference between the frame and its copy shifted by the period, normalized by their energy
+     * @param data Frame samples
+     * @param period Period in samples, rounded to the nearest sample
+     * @return 1 for a perfectly periodic frame, 0 for noise or a frame in antiphase with itself
+     */
+    public static float periodicity(float[] data, float period) {
+        int lag = Math.round(period);
+        if (lag <= 0 || lag >= data.length) {
+            return 0;
+        }
+
+        double difference = 0;
+        double energy = 0;
+        for (int i = 0; i + lag < data.length; i++) {
+            float delta = data[i] - data[i + lag];
+            difference += delta * delta;
+            energy += data[i] * data[i] + data[i + lag] * data[i + lag];
+        }
+        return (energy > 0) ? (float) Math.max(0, 1 - difference / energy) : 0;
+    }
+}
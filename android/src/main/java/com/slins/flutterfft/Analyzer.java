@@ -0,0 +1,26 @@
+package com.slins.flutterfft;
+
+import java.util.Map;
+
+interface Analyzer {
+    /**
+     * Allocates the buffers of the analyzer, called before the first window and whenever the capture sample rate changes
+     * @param sampleRate Capture sample rate in Hz
+     * @param window Number of samples per analysis window
+     */
+    void configure(int sampleRate, int window);
+
+    /**
+     * Analyses one window read in place from the shared capture ring
+     * @param ring Capture ring buffer, its length is a power of two
+     * @param start Index in the ring of the first sample of the window, wraps around with ring.length - 1 as mask
+     * @param window Number of samples per analysis window
+     * @return Event payload for Dart
+     */
+    Map<String, Object> analyze(short[] ring, int start, int window);
+
+    /**
+     * Frees resources held by the analyzer when it is removed
+     */
+    void release();
+}
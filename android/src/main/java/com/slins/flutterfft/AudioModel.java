@@ -1,17 +1,17 @@
 package com.slins.flutterfft;
 
 import android.media.AudioFormat;
-import android.media.AudioRecord;
 
 public class AudioModel {
     protected int subsDurationMillis = 500; // DEFAULT INTERVAL (0.5s)
 
-    private AudioRecord audioRecorder; // AUDIO RECORDER
+    private AudioSource audioSource; // AUDIO SOURCE (RECORDER, FILE OR SYNTHETIC)
     private Runnable recorderTicker; // RECORDER RUNNABLE
 
     protected int audioFormat = AudioFormat.ENCODING_PCM_16BIT; // FORMAT IN WHICH THE AUDIO GETS RECORDED AND PROCESSED
 
     private short[] audioData; // AUDIO DATA
+    private float[] floatData; // AUDIO DATA CONVERTED FOR THE PITCH DETECTOR
 
     protected short[] getAudioData() {
         return audioData;
@@ -21,13 +21,21 @@ public class AudioModel {
         this.audioData = audioData;
     } // AUDIO DATA SETTER
 
-    protected AudioRecord getAudioRecorder() {
-        return audioRecorder;
-    } // AUDIO RECORDER GETTER
+    protected float[] getFloatData() {
+        return floatData;
+    } // FLOAT DATA GETTER
 
-    protected void setAudioRecorder(AudioRecord audioRecorder) {
-        this.audioRecorder = audioRecorder;
-    } // AUDIO RECORDER SETTER
+    protected void setFloatData(float[] floatData) {
+        this.floatData = floatData;
+    } // FLOAT DATA SETTER
+
+    protected AudioSource getAudioSource() {
+        return audioSource;
+    } // AUDIO SOURCE GETTER
+
+    protected void setAudioSource(AudioSource audioSource) {
+        this.audioSource = audioSource;
+    } // AUDIO SOURCE SETTER
 
     protected Runnable getRecorderTicker() {
         return recorderTicker;
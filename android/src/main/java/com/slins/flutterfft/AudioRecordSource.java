@@ -0,0 +1,91 @@
+package com.slins.flutterfft;
+
+import android.media.AudioRecord;
+import android.media.AudioTimestamp;
+import android.os.Build;
+
+public class AudioRecordSource implements AudioSource {
+    private final AudioRecord audioRecorder; // DEVICE RECORDER
+    private final int sampleRate;
+    private final AudioTimestamp timestamp = new AudioTimestamp(); // REUSED FOR EVERY READ
+    private long framesRead = 0; // FRAMES READ FROM THIS RECORDER, KEPT ACROSS stop AND start LIKE THE TIMESTAMP FRAME POSITION
+    private long captureTimeNanos = 0; // CAPTURE TIME OF THE FIRST SAMPLE OF THE LAST READ
+
+    /**
+     * Wraps an Android AudioRecord as an audio source
+     * @param androidAudioSource Audio input source
+     * @param sampleRate Audio sample rate in Hz
+     * @param numChannels Number of audio channels
+     * @param audioFormat PCM encoding
+     * @param bufferSize Recorder buffer size in bytes
+     */
+    public AudioRecordSource(int androidAudioSource, int sampleRate, int numChannels, int audioFormat, int bufferSize) {
+        this.audioRecorder = new AudioRecord(androidAudioSource, sampleRate, numChannels, audioFormat, bufferSize);
+        this.sampleRate = sampleRate;
+    }
+
+    protected AudioRecord getAudioRecorder() {
+        return audioRecorder;
+    } // AUDIO RECORDER GETTER
+
+    @Override
+    public void start() {
+        audioRecorder.startRecording();
+    }
+
+    @Override
+    public void stop() {
+        audioRecorder.stop();
+    }
+
+    @Override
+    public void release() {
+        audioRecorder.release();
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return audioRecorder.getState() == AudioRecord.STATE_INITIALIZED;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return audioRecorder.getRecordingState() == AudioRecord.RECORDSTATE_RECORDING;
+    }
+
+    @Override
+    public int read(short[] audioData, int offset, int size) {
+        int read = audioRecorder.read(audioData, offset, size);
+        if (read > 0) {
+            stampCaptureTime(read);
+        }
+        return read;
+    }
+
+    /**
+     * Derives the capture time of the first sample read from the recorder timestamp and the frame position
+     * Falls back to the read time minus the buffer duration before API 24 or when no timestamp is available
+     * @param read Number of frames of the last read
+     */
+    private void stampCaptureTime(int read) {
+        long firstFrame = framesRead;
+        framesRead += read;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                && audioRecorder.getTimestamp(timestamp, AudioTimestamp.TIMEBASE_MONOTONIC) == AudioRecord.SUCCESS) {
+            captureTimeNanos = timestamp.nanoTime + (firstFrame - timestamp.framePosition) * 1000000000L / sampleRate;
+        } else {
+            captureTimeNanos = System.nanoTime() - read * 1000000000L / sampleRate;
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public long getCaptureTimeNanos() {
+        return captureTimeNanos;
+    }
+}
@@ -0,0 +1,12 @@
+package com.slins.flutterfft;
+
+interface AudioSource {
+    void start();
+    void stop();
+    void release();
+    boolean isInitialized();
+    boolean isRunning();
+    int read(short[] audioData, int offset, int size);
+    int getSampleRate();
+    long getCaptureTimeNanos();
+}
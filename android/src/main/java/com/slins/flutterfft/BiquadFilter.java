@@ -0,0 +1,113 @@
+package com.slins.flutterfft;
+
+public class BiquadFilter {
+    // NORMALIZED COEFFICIENTS (a0 = 1)
+    private float b0 = 1;
+    private float b1 = 0;
+    private float b2 = 0;
+    private float a1 = 0;
+    private float a2 = 0;
+
+    // TRANSPOSED DIRECT FORM II STATE
+    private float z1 = 0;
+    private float z2 = 0;
+
+    /**
+     * Sets up a second-order high-pass filter (RBJ audio EQ cookbook)
+     * @param sampleRate Audio sample rate in Hz
+     * @param cutoff Cutoff frequency in Hz
+     * @param q Quality factor, 0.7071 for a Butterworth response
+     */
+    public void setHighPass(float sampleRate, float cutoff, float q) {
+        double omega = 2 * Math.PI * cutoff / sampleRate;
+        double cos = Math.cos(omega);
+        double alpha = Math.sin(omega) / (2 * q);
+        setCoefficients((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    /**
+     * Sets up a second-order low-pass filter (RBJ audio EQ cookbook)
+     * @param sampleRate Audio sample rate in Hz
+     * @param cutoff Cutoff frequency in Hz
+     * @param q Quality factor, 0.7071 for a Butterworth response
+     */
+    public void setLowPass(float sampleRate, float cutoff, float q) {
+        double omega = 2 * Math.PI * cutoff / sampleRate;
+        double cos = Math.cos(omega);
+        double alpha = Math.sin(omega) / (2 * q);
+        setCoefficients((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    /**
+     * Sets up a second-order band-pass filter with 0 dB gain at the center frequency (RBJ audio EQ cookbook)
+     * @param sampleRate Audio sample rate in Hz
+     * @param center Center frequency in Hz
+     * @param q Quality factor, center frequency over bandwidth
+     */
+    public void setBandPass(float sampleRate, float center, float q) {
+        double omega = 2 * Math.PI * center / sampleRate;
+        double cos = Math.cos(omega);
+        double alpha = Math.sin(omega) / (2 * q);
+        setCoefficients(alpha, 0, -alpha, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    private void setCoefficients(double b0, double b1, double b2, double a0, double a1, double a2) {
+        this.b0 = (float) (b0 / a0);
+        this.b1 = (float) (b1 / a0);
+        this.b2 = (float) (b2 / a0);
+        this.a1 = (float) (a1 / a0);
+        this.a2 = (float) (a2 / a0);
+        z1 = 0;
+        z2 = 0;
+    }
+
+    /**
+     * Sets the state to the steady state of a constant input, so a frame starting on an offset does not ring
+     * Frames are not contiguous when the subscription duration is longer than a frame, so the state is primed after each gap
+     * @param value First sample of the frame
+     */
+    public void prime(float value) {
+        float gain = (b0 + b1 + b2) / (1 + a1 + a2);
+        float output = gain * value;
+        z2 = b2 * value - a2 * output;
+        z1 = b1 * value - a1 * output + z2;
+    }
+
+    /**
+     * Filters samples in place
+     * @param data Samples
+     * @param length Number of samples
+     */
+    public void process(float[] data, int length) {
+        float state1 = z1;
+        float state2 = z2;
+        for (int i = 0; i < length; i++) {
+            float input = data[i];
+            float output = b0 * input + state1;
+            state1 = b1 * input - a1 * output + state2;
+            state2 = b2 * input - a2 * output;
+            data[i] = output;
+        }
+        z1 = state1;
+        z2 = state2;
+    }
+
+    /**
+     * Filters 16-bit samples in place, rounding and clipping the output
+     * @param data Samples
+     * @param length Number of samples
+     */
+    public void process(short[] data, int length) {
+        float state1 = z1;
+        float state2 = z2;
+        for (int i = 0; i < length; i++) {
+            float input = data[i];
+            float output = b0 * input + state1;
+            state1 = b1 * input - a1 * output + state2;
+            state2 = b2 * input - a2 * output;
+            data[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(output)));
+        }
+        z1 = state1;
+        z2 = state2;
+    }
+}
@@ -0,0 +1,146 @@
+package com.slins.flutterfft;
+
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CalibrationProfile {
+    public static final String PREFERENCES_NAME = "com.slins.flutterfft.calibration";
+    public static final float GATE_MARGIN_DB = 6; // GATE THRESHOLD ABOVE THE NOISE FLOOR
+    public static final float MIN_DC_OFFSET = 1; // SMALLER OFFSETS ARE LEFT IN THE SIGNAL
+
+    private final int androidAudioSource;
+    private final int numChannels;
+    private final int sampleRate; // BEST NATIVE CAPTURE RATE IN Hz
+    private final float noiseFloorDb; // MEDIAN LEVEL OF THE SILENT INPUT IN dBFS, DC OFFSET REMOVED
+    private final float dcOffset; // MEAN SAMPLE VALUE OF THE SILENT INPUT
+    private final long calibratedAtMillis; // WALL CLOCK TIME OF THE MEASUREMENT
+
+    /**
+     * Input characteristics of one audio source of the device, measured once by InputCalibrator
+     * @param androidAudioSource Audio input source that was measured
+     * @param numChannels Number of audio channels it was measured with
+     * @param sampleRate Capture rate in Hz the source opened at
+     * @param noiseFloorDb Level of the silent input in dBFS
+     * @param dcOffset Mean sample value of the silent input
+     * @param calibratedAtMillis Wall clock time of the measurement
+     */
+    public CalibrationProfile(int androidAudioSource, int numChannels, int sampleRate, float noiseFloorDb, float dcOffset, long calibratedAtMillis) {
+        this.androidAudioSource = androidAudioSource;
+        this.numChannels = numChannels;
+        this.sampleRate = sampleRate;
+        this.noiseFloorDb = noiseFloorDb;
+        this.dcOffset = dcOffset;
+        this.calibratedAtMillis = calibratedAtMillis;
+    }
+
+    /**
+     * Reads the stored profile of an audio source
+     * @param preferences Preferences named PREFERENCES_NAME
+     * @param androidAudioSource Audio input source
+     * @param numChannels Number of audio channels
+     * @return The profile, or null if the source was never calibrated with this channel count
+     */
+    public static CalibrationProfile load(SharedPreferences preferences, int androidAudioSource, int numChannels) {
+        String prefix = prefix(androidAudioSource, numChannels);
+        if (!preferences.contains(prefix + "sampleRate")) {
+            return null;
+        }
+        return new CalibrationProfile(
+                androidAudioSource,
+                numChannels,
+                preferences.getInt(prefix + "sampleRate", 0),
+                preferences.getFloat(prefix + "noiseFloorDb", 0),
+                preferences.getFloat(prefix + "dcOffset", 0),
+                preferences.getLong(prefix + "calibratedAtMillis", 0));
+    }
+
+    /**
+     * Removes the stored profile of an audio source
+     * @param preferences Preferences named PREFERENCES_NAME
+     * @param androidAudioSource Audio input source
+     * @param numChannels Number of audio channels
+     * @return true if a profile was stored
+     */
+    public static boolean remove(SharedPreferences preferences, int androidAudioSource, int numChannels) {
+        String prefix = prefix(androidAudioSource, numChannels);
+        if (!preferences.contains(prefix + "sampleRate")) {
+            return false;
+        }
+        preferences.edit()
+                .remove(prefix + "sampleRate")
+                .remove(prefix + "noiseFloorDb")
+                .remove(prefix + "dcOffset")
+                .remove(prefix + "calibratedAtMillis")
+                .apply();
+        return true;
+    }
+
+    /**
+     * Stores the profile, replacing the previous one of the same audio source and channel count
+     * @param preferences Preferences named PREFERENCES_NAME
+     */
+    public void save(SharedPreferences preferences) {
+        String prefix = prefix(androidAudioSource, numChannels);
+        preferences.edit()
+                .putInt(prefix + "sampleRate", sampleRate)
+                .putFloat(prefix + "noiseFloorDb", noiseFloorDb)
+                .putFloat(prefix + "dcOffset", dcOffset)
+                .putLong(prefix + "calibratedAtMillis", calibratedAtMillis)
+                .apply();
+    }
+
+    private static String prefix(int androidAudioSource, int numChannels) {
+        return "source" + androidAudioSource + ".channels" + numChannels + ".";
+    }
+
+    public int getAndroidAudioSource() {
+        return androidAudioSource;
+    }
+
+    public int getNumChannels() {
+        return numChannels;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public float getNoiseFloorDb() {
+        return noiseFloorDb;
+    }
+
+    public float getDcOffset() {
+        return dcOffset;
+    }
+
+    /**
+     * @return Level in dBFS below which the adaptive gate treats a frame as silent
+     */
+    public float getGateThresholdDb() {
+        return noiseFloorDb + GATE_MARGIN_DB;
+    }
+
+    /**
+     * @return Whether the offset is large enough for the processor chain to remove it
+     */
+    public boolean hasDcOffset() {
+        return Math.abs(dcOffset) >= MIN_DC_OFFSET;
+    }
+
+    /**
+     * @return Profile sent to Dart: androidAudioSource, numChannels, sampleRate, noiseFloorDb, dcOffset, gateThresholdDb, calibratedAtMillis
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("androidAudioSource", androidAudioSource);
+        map.put("numChannels", numChannels);
+        map.put("sampleRate", sampleRate);
+        map.put("noiseFloorDb", (double) noiseFloorDb);
+        map.put("dcOffset", (double) dcOffset);
+        map.put("gateThresholdDb", (double) getGateThresholdDb());
+        map.put("calibratedAtMillis", calibratedAtMillis);
+        return map;
+    }
+}
@@ -0,0 +1,193 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CaptureHub {
+    public static final String TYPE_PITCH = "pitch";
+    public static final String TYPE_SPECTRUM = "spectrum";
+    public static final String TYPE_LEVEL = "level";
+    public static final int DEFAULT_WINDOW = 2048;
+    private static final long MAX_JITTER_NANOS = 10000000L; // CAPTURE TIME DRIFT TOLERATED BEFORE A FRAME COUNTS AS A NEW STRETCH OF AUDIO
+
+    private short[] ring = new short[0]; // SHARED CAPTURE RING, LENGTH IS A POWER OF TWO
+    private long written = 0; // SAMPLES WRITTEN SINCE THE RECORDER STARTED
+    private int sampleRate = 0;
+    private int frameSize = 0;
+    private long frameStart = 0; // STREAM POSITION OF THE FIRST SAMPLE OF THE LAST FRAME
+    private long frameCaptureNanos = 0; // CAPTURE TIME OF THAT SAMPLE
+
+    private final List<Registration> registrations = new ArrayList<Registration>();
+
+    /**
+     * One analyzer registered from Dart, with its own window and hop over the shared stream
+     */
+    private static class Registration {
+        final String id;
+        final String type;
+        final Analyzer analyzer;
+        final int window;
+        final int hop;
+        long nextStart = 0; // STREAM POSITION OF THE NEXT WINDOW
+
+        Registration(String id, String type, Analyzer analyzer, int window, int hop) {
+            this.id = id;
+            this.type = type;
+            this.analyzer = analyzer;
+            this.window = window;
+            this.hop = hop;
+        }
+    }
+
+    /**
+     * Builds an analyzer from the type and options sent from Dart
+     * @param type pitch, spectrum or level
+     * @param options pitch: detectors (list of names), spectrum: bands (int)
+     * @return The analyzer, or null for an unknown type
+     */
+    @SuppressWarnings("unchecked")
+    public static Analyzer createAnalyzer(String type, Map<String, Object> options) {
+        if (TYPE_PITCH.equals(type)) {
+            Object detectors = (options != null) ? options.get("detectors") : null;
+            return new PitchAnalyzer((detectors instanceof List) ? (List<String>) detectors : null);
+        } else if (TYPE_SPECTRUM.equals(type)) {
+            Object bands = (options != null) ? options.get("bands") : null;
+            return new SpectrumAnalyzer((bands instanceof Number) ? ((Number) bands).intValue() : 0);
+        } else if (TYPE_LEVEL.equals(type)) {
+            return new LevelAnalyzer();
+        }
+        return null;
+    }
+
+    /**
+     * Registers an analyzer, replacing one with the same id
+     * It starts with the next captured frame and adds no read of its own
+     * @param id Id the events of the analyzer are tagged with
+     * @param type Analyzer type, sent along with the events
+     * @param analyzer The analyzer
+     * @param window Number of samples per analysis window
+     * @param hop Number of samples between the starts of consecutive windows
+     */
+    public synchronized void add(String id, String type, Analyzer analyzer, int window, int hop) {
+        remove(id);
+        Registration registration = new Registration(id, type, analyzer, window, Math.max(1, hop));
+        registration.nextStart = written;
+        registrations.add(registration);
+        if (sampleRate > 0) {
+            analyzer.configure(sampleRate, window);
+            ensureCapacity();
+        }
+    }
+
+    /**
+     * @param id Id given to add
+     * @return true if an analyzer was removed
+     */
+    public synchronized boolean remove(String id) {
+        for (int i = 0; i < registrations.size(); i++) {
+            if (registrations.get(i).id.equals(id)) {
+                registrations.remove(i).analyzer.release();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        for (Registration registration : registrations) {
+            registration.analyzer.release();
+        }
+        registrations.clear();
+    }
+
+    /**
+     * Prepares the ring for a recorder session, analyzers are reconfigured when the sample rate changed
+     * @param sampleRate Capture sample rate in Hz
+     * @param frameSize Number of samples captured per frame
+     */
+    public synchronized void start(int sampleRate, int frameSize) {
+        if (sampleRate != this.sampleRate) {
+            for (Registration registration : registrations) {
+                registration.analyzer.configure(sampleRate, registration.window);
+            }
+        }
+        this.sampleRate = sampleRate;
+        this.frameSize = frameSize;
+        written = 0;
+        for (Registration registration : registrations) {
+            registration.nextStart = 0;
+        }
+        ensureCapacity();
+    }
+
+    /**
+     * The ring holds the largest window plus a captured frame, so a window that started in the previous frame is still there when it completes
+     */
+    private void ensureCapacity() {
+        int needed = frameSize;
+        for (Registration registration : registrations) {
+            needed = Math.max(needed, frameSize + registration.window);
+        }
+        if (needed > ring.length) {
+            ring = new short[Integer.highestOneBit(needed - 1) << 1];
+            written = 0;
+            for (Registration registration : registrations) {
+                registration.nextStart = 0;
+            }
+        }
+    }
+
+    /**
+     * Appends a captured frame to the ring and runs every analyzer on the windows it completes
+     * Windows that fell out of the ring are skipped, the analyzer resumes on the oldest one still available
+     * Frames are not read back to back, when the capture time shows audio was missed since the last frame,
+     * the windows restart at this frame instead of joining audio from two moments
+     * @param audioData Captured samples
+     * @param length Number of samples
+     * @param captureTimeNanos Capture time of the first sample
+     */
+    public synchronized void process(short[] audioData, int length, long captureTimeNanos) {
+        if (registrations.isEmpty() || ring.length == 0) {
+            return;
+        }
+
+        // Where the last frame ended in time, the ring holds no audio between it and this frame if they differ
+        long expectedNanos = frameCaptureNanos + (written - frameStart) * 1000000000L / sampleRate;
+        boolean gap = written > 0 && Math.abs(captureTimeNanos - expectedNanos) > MAX_JITTER_NANOS;
+
+        int mask = ring.length - 1;
+        int position = (int) (written & mask);
+        int first = Math.min(length, ring.length - position);
+        System.arraycopy(audioData, 0, ring, position, first);
+        System.arraycopy(audioData, first, ring, 0, length - first);
+        frameStart = written;
+        frameCaptureNanos = captureTimeNanos;
+        written += length;
+
+        for (Registration registration : registrations) {
+            if (gap) {
+                registration.nextStart = Math.max(registration.nextStart, frameStart);
+            }
+            long oldest = written - ring.length;
+            if (registration.nextStart < oldest) {
+                long behind = oldest - registration.nextStart;
+                registration.nextStart += (behind + registration.hop - 1) / registration.hop * registration.hop;
+            }
+
+            while (registration.nextStart + registration.window <= written) {
+                final Map<String, Object> event = registration.analyzer.analyze(ring, (int) (registration.nextStart & mask), registration.window);
+                event.put("id", registration.id);
+                event.put("type", registration.type);
+                event.put("captureTimeNanos", frameCaptureNanos + (registration.nextStart - frameStart) * 1000000000L / sampleRate);
+                registration.nextStart += registration.hop;
+
+                FlutterFftPlugin.mainHandler.post(() -> {
+                    if (FlutterFftPlugin.analyzerSink != null) {
+                        FlutterFftPlugin.analyzerSink.success(event);
+                    }
+                });
+            }
+        }
+    }
+}
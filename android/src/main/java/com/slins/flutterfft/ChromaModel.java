@@ -0,0 +1,226 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import be.tarsos.dsp.util.fft.FFT;
+
+public class ChromaModel {
+    public static final String[] PITCH_CLASSES = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+
+    private static final float KERNEL_THRESHOLD = 0.005f; // SPECTRAL KERNEL VALUES BELOW THIS ARE DROPPED
+    private static final Map<String, Kernel> kernelCache = new HashMap<String, Kernel>(); // KERNELS SHARED BETWEEN SESSIONS
+
+    private final Kernel kernel;
+    private final boolean cqtEnabled;
+
+    private final float[] fftData; // FRAME COPY TRANSFORMED IN PLACE
+    private final float[] window; // HANN WINDOW OF THE FRAME COPY, NULL WHEN DISABLED
+    private final float[] chroma = new float[12];
+    private final float[] cqt;
+
+    private long lastProcessNanos = 0;
+    private long maxProcessNanos = 0;
+
+    /**
+     * Spectral kernels for one sample rate and FFT length, with bin centers taken from the note table
+     */
+    private static class Kernel {
+        final int fftLength;
+        final FFT fft;
+        final float[] frequencies;
+        final int[] pitchClasses;
+        final float[][] values;
+        final int[][] indexes;
+
+        Kernel(int fftLength, FFT fft, float[] frequencies, int[] pitchClasses, float[][] values, int[][] indexes) {
+            this.fftLength = fftLength;
+            this.fft = fft;
+            this.frequencies = frequencies;
+            this.pitchClasses = pitchClasses;
+            this.values = values;
+            this.indexes = indexes;
+        }
+    }
+
+    /**
+     * Sets up the constant-Q stage for a recorder configuration
+     * Kernels are built once per sample rate and frame size and cached for later sessions
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     * @param frequencyData Note table built by getFrequenciesAndOctaves
+     * @param cqtEnabled Whether the per-note CQT magnitudes should be kept as well
+     * @param windowed Whether the frame copy is multiplied by a Hann window before the FFT, the frame the detectors read is never windowed
+     */
+    public ChromaModel(int sampleRate, int frameSize, List<FrequencyData<String, Float, Integer>> frequencyData, boolean cqtEnabled, boolean windowed) {
+        int fftLength = Integer.highestOneBit(frameSize);
+        this.kernel = getKernel(sampleRate, fftLength, frequencyData);
+        this.cqtEnabled = cqtEnabled;
+        this.fftData = new float[fftLength];
+        this.cqt = new float[kernel.frequencies.length];
+
+        if (windowed) {
+            window = new float[fftLength];
+            for (int i = 0; i < fftLength; i++) {
+                window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (fftLength - 1)));
+            }
+        } else {
+            window = null;
+        }
+    }
+
+    private static synchronized Kernel getKernel(int sampleRate, int fftLength, List<FrequencyData<String, Float, Integer>> frequencyData) {
+        String key = sampleRate + ":" + fftLength;
+        Kernel cached = kernelCache.get(key);
+        if (cached == null) {
+            cached = buildKernel(sampleRate, fftLength, frequencyData);
+            kernelCache.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Builds sparse spectral kernels (Brown and Puckette) for every note of the table below Nyquist
+     * Notes whose constant-Q window is longer than the FFT are left out, a truncated window is wider than a semitone and leaks into the neighbouring pitch classes
+     * Their harmonics still reach the chroma through the higher notes
+     */
+    private static Kernel buildKernel(int sampleRate, int fftLength, List<FrequencyData<String, Float, Integer>> frequencyData) {
+        double q = 1.0 / (Math.pow(2, 1.0 / 12) - 1.0);
+        double lowestFrequency = q * sampleRate / fftLength; // LOWEST NOTE WHOSE WINDOW FITS IN THE FFT
+
+        List<FrequencyData<String, Float, Integer>> notes = new ArrayList<FrequencyData<String, Float, Integer>>();
+        for (FrequencyData<String, Float, Integer> data : frequencyData) {
+            if (data.second < sampleRate / 2f * 0.9f && data.second >= lowestFrequency) {
+                notes.add(0, data); // THE TABLE IS SORTED DESCENDING, BINS ASCEND
+            }
+        }
+        FFT fft = new FFT(fftLength);
+
+        int bins = notes.size();
+        float[] frequencies = new float[bins];
+        int[] pitchClasses = new int[bins];
+        float[][] values = new float[bins][];
+        int[][] indexes = new int[bins][];
+
+        float[] temporalKernel = new float[fftLength * 2];
+        float[] sparseValues = new float[fftLength * 2];
+        int[] sparseIndexes = new int[fftLength];
+
+        for (int i = 0; i < bins; i++) {
+            frequencies[i] = notes.get(i).second;
+            pitchClasses[i] = pitchClassOf(notes.get(i).first);
+
+            int length = (int) Math.min(Math.ceil(q * sampleRate / frequencies[i]), fftLength); // ROUNDING ONLY, LOWER NOTES ARE LEFT OUT
+            for (int j = 0; j < length; j++) {
+                double window = (0.5 - 0.5 * Math.cos(2 * Math.PI * j / length)) / length;
+                double x = 2 * Math.PI * frequencies[i] * j / sampleRate;
+                temporalKernel[j * 2] = (float) (window * Math.cos(x));
+                temporalKernel[j * 2 + 1] = (float) (window * Math.sin(x));
+            }
+            for (int j = length * 2; j < temporalKernel.length; j++) {
+                temporalKernel[j] = 0;
+            }
+
+            fft.complexForwardTransform(temporalKernel);
+
+            // Folds the negative frequencies onto the positive ones so the kernel applies to a real FFT, bin m mirrors bin fftLength - m
+            int count = 0;
+            for (int j = 0; j < temporalKernel.length / 2; j += 2) {
+                int k = (temporalKernel.length - j) % temporalKernel.length;
+                double magnitude = Math.hypot(temporalKernel[j], temporalKernel[j + 1]) + Math.hypot(temporalKernel[k], temporalKernel[k + 1]);
+                if (magnitude > KERNEL_THRESHOLD) {
+                    sparseIndexes[count] = j;
+                    sparseValues[2 * count] = (temporalKernel[j] + temporalKernel[k]) / fftLength;
+                    sparseValues[2 * count + 1] = -(temporalKernel[j + 1] + temporalKernel[k + 1]) / fftLength;
+                    count++;
+                }
+            }
+
+            values[i] = new float[count * 2];
+            indexes[i] = new int[count];
+            System.arraycopy(sparseValues, 0, values[i], 0, count * 2);
+            System.arraycopy(sparseIndexes, 0, indexes[i], 0, count);
+        }
+
+        return new Kernel(fftLength, fft, frequencies, pitchClasses, values, indexes);
+    }
+
+    private static int pitchClassOf(String note) {
+        for (int i = 0; i < PITCH_CLASSES.length; i++) {
+            if (PITCH_CLASSES[i].equals(note)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes the chroma vector (and CQT magnitudes if enabled) of the most recent samples of a frame
+     * @param floatData Frame samples, left untouched
+     */
+    public void process(float[] floatData) {
+        long start = System.nanoTime();
+
+        int offset = Math.max(0, floatData.length - kernel.fftLength);
+        System.arraycopy(floatData, offset, fftData, 0, Math.min(kernel.fftLength, floatData.length));
+        if (window != null) {
+            for (int i = 0; i < window.length; i++) {
+                fftData[i] *= window[i];
+            }
+        }
+        kernel.fft.forwardTransform(fftData);
+
+        for (int i = 0; i < chroma.length; i++) {
+            chroma[i] = 0;
+        }
+
+        for (int i = 0; i < kernel.values.length; i++) {
+            float[] values = kernel.values[i];
+            int[] indexes = kernel.indexes[i];
+            float real = 0;
+            float imaginary = 0;
+            for (int j = 0, l = 0; j < values.length; j += 2, l++) {
+                int index = indexes[l];
+                real += fftData[index] * values[j] - fftData[index + 1] * values[j + 1];
+                imaginary += fftData[index] * values[j + 1] + fftData[index + 1] * values[j];
+            }
+            float energy = real * real + imaginary * imaginary;
+            chroma[kernel.pitchClasses[i]] += energy;
+            if (cqtEnabled) {
+                cqt[i] = (float) Math.sqrt(energy);
+            }
+        }
+
+        float max = 0;
+        for (float value : chroma) {
+            max = Math.max(max, value);
+        }
+        if (max > 0) {
+            for (int i = 0; i < chroma.length; i++) {
+                chroma[i] /= max;
+            }
+        }
+
+        lastProcessNanos = System.nanoTime() - start;
+        maxProcessNanos = Math.max(maxProcessNanos, lastProcessNanos);
+    }
+
+    /**
+     * Builds the payload sent over the chroma EventChannel
+     * chroma is normalized so that its strongest pitch class is 1, cqt bins ascend in semitones from cqtMinFrequency
+     * @return Map with copies of the last computed vectors
+     */
+    public Map<String, Object> toEvent() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("chroma", chroma.clone());
+        if (cqtEnabled) {
+            event.put("cqt", cqt.clone());
+            event.put("cqtMinFrequency", (kernel.frequencies.length > 0) ? (double) kernel.frequencies[0] : 0.0);
+        }
+        event.put("processingMillis", lastProcessNanos / 1e6);
+        event.put("maxProcessingMillis", maxProcessNanos / 1e6);
+        return event;
+    }
+}
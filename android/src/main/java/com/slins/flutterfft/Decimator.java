@@ -0,0 +1,35 @@
+package com.slins.flutterfft;
+
+public class Decimator implements FrameProcessor {
+    private static final int STAGES = 2; // CASCADED ANTI-ALIASING SECTIONS
+    private static final float CUTOFF = 0.8f; // ANTI-ALIASING CUTOFF RELATIVE TO THE DECIMATED NYQUIST FREQUENCY
+
+    private final BiquadFilter[] lowPass = new BiquadFilter[STAGES];
+
+    /**
+     * Lowers the analysis rate, so low notes are detected on shorter buffers
+     * Low-passes the float frame in place, then keeps one sample out of decimation in the analysis buffer
+     * @param sampleRate Capture sample rate in Hz
+     * @param decimation Capture samples per analysis sample
+     */
+    public Decimator(int sampleRate, int decimation) {
+        float cutoff = CUTOFF * sampleRate / (2f * decimation);
+        for (int i = 0; i < STAGES; i++) {
+            lowPass[i] = new BiquadFilter();
+            lowPass[i].setLowPass(sampleRate, cutoff, 0.7071f);
+        }
+    }
+
+    @Override
+    public boolean process(Frame frame) {
+        for (BiquadFilter filter : lowPass) {
+            filter.prime(frame.floatData[0]);
+            filter.process(frame.floatData, frame.floatData.length);
+        }
+
+        for (int i = 0, j = 0; i < frame.analysisData.length; i++, j += frame.decimation) {
+            frame.analysisData[i] = frame.floatData[j];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.slins.flutterfft;
+
+public class DeltaEmitter {
+    private boolean enabled = false; // ONLY EMIT WHEN THE READING CHANGES
+    private float centsThreshold = 1.0f; // MINIMUM DEVIATION CHANGE (IN CENTS) THAT TRIGGERS AN EVENT
+    private int keepAliveMillis = 1000; // MAXIMUM TIME WITHOUT AN EVENT WHILE A PITCH IS DETECTED
+
+    private String lastNote = null;
+    private int lastOctave = 0;
+    private float lastCents = 0;
+    private boolean lastIsOnPitch = false;
+    private long lastEmitMillis = 0;
+
+    /**
+     * Configures the delta mode
+     * @param enabled Whether unchanged frames should be suppressed
+     * @param centsThreshold Minimum deviation change in cents that triggers an event
+     * @param keepAliveMillis Maximum interval between events while a pitch is detected
+     */
+    public void configure(boolean enabled, float centsThreshold, int keepAliveMillis) {
+        this.enabled = enabled;
+        this.centsThreshold = centsThreshold;
+        this.keepAliveMillis = keepAliveMillis;
+        reset();
+    }
+
+    /**
+     * Forgets the last emitted reading so the next frame is always emitted
+     */
+    public void reset() {
+        lastNote = null;
+        lastOctave = 0;
+        lastCents = 0;
+        lastIsOnPitch = false;
+        lastEmitMillis = 0;
+    }
+
+    /**
+     * Decides whether a frame differs enough from the last emitted one to be sent to Dart
+     * Records the frame as the last emitted reading when it returns true
+     * @param note Detected note
+     * @param octave Detected octave
+     * @param cents Deviation from the target frequency in cents
+     * @param isOnPitch Whether the frame is within tolerance
+     * @param nowMillis Current time in milliseconds
+     * @return true if the frame should be emitted
+     */
+    public boolean shouldEmit(String note, int octave, float cents, boolean isOnPitch, long nowMillis) {
+        if (enabled && lastNote != null
+                && lastNote.equals(note)
+                && lastOctave == octave
+                && lastIsOnPitch == isOnPitch
+                && Math.abs(cents - lastCents) < centsThreshold
+                && nowMillis - lastEmitMillis < keepAliveMillis) {
+            return false;
+        }
+
+        lastNote = note;
+        lastOctave = octave;
+        lastCents = cents;
+        lastIsOnPitch = isOnPitch;
+        lastEmitMillis = nowMillis;
+        return true;
+    }
+
+    /**
+     * Calculates the deviation between two frequencies in cents
+     * @param frequency The detected frequency in Hz
+     * @param reference The reference frequency in Hz
+     * @return Deviation in cents, 0 if the reference is not set
+     */
+    public static float centsBetween(float frequency, float reference) {
+        if (frequency <= 0 || reference <= 0) {
+            return 0;
+        }
+        return (float) (1200 * Math.log(frequency / reference) / Math.log(2));
+    }
+}
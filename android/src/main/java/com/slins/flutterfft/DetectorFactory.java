@@ -0,0 +1,86 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import be.tarsos.dsp.pitch.FastYin;
+import be.tarsos.dsp.pitch.McLeodPitchMethod;
+import be.tarsos.dsp.pitch.PitchDetector;
+
+public class DetectorFactory {
+    public static final String YIN = "yin";
+    public static final String MPM = "mpm";
+    public static final String AMDF_DETECTOR = "amdf";
+    public static final String INTEGER_YIN = "yin_int";
+
+    /**
+     * Builds the detector selected from Dart
+     * One name gives that detector, several give an ensemble running them concurrently
+     * yin_int reads the 16-bit samples and is only built by createShort, on its own
+     * @param names Detector names (yin, mpm, amdf), null or empty for yin
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     * @return The pitch detector
+     */
+    public static PitchDetector create(List<String> names, float sampleRate, int frameSize) {
+        if (names == null || names.isEmpty()) {
+            return new FastYin(sampleRate, frameSize);
+        }
+
+        List<PitchDetector> detectors = new ArrayList<PitchDetector>();
+        for (String name : names) {
+            detectors.add(createSingle(name, sampleRate, frameSize));
+        }
+
+        if (detectors.size() == 1) {
+            return detectors.get(0);
+        }
+        return new EnsembleDetector(detectors, sampleRate, frameSize);
+    }
+
+    private static PitchDetector createSingle(String name, float sampleRate, int frameSize) {
+        if (MPM.equals(name)) {
+            return new McLeodPitchMethod(sampleRate, frameSize);
+        } else if (AMDF_DETECTOR.equals(name)) {
+            return new AmdfDetector(sampleRate, frameSize);
+        } else if (YIN.equals(name)) {
+            return new FastYin(sampleRate, frameSize);
+        } else if (INTEGER_YIN.equals(name)) {
+            throw new IllegalArgumentException("Pitch detector " + INTEGER_YIN + " reads 16-bit samples and can't be combined with other detectors");
+        }
+        throw new IllegalArgumentException("Unknown pitch detector: " + name);
+    }
+
+    /**
+     * Builds the integer-domain detector when it is selected on its own
+     * It reads the 16-bit samples directly and can't be part of an ensemble
+     * @param names Detector names from Dart
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     * @return The detector, or null if the float detectors are selected
+     */
+    public static ShortPitchDetector createShort(List<String> names, float sampleRate, int frameSize) {
+        if (isShort(names)) {
+            return new IntegerYin(sampleRate, frameSize);
+        }
+        return null;
+    }
+
+    /**
+     * @param names Detector names from Dart
+     * @return true if the integer-domain detector is selected on its own
+     */
+    public static boolean isShort(List<String> names) {
+        return names != null && names.size() == 1 && INTEGER_YIN.equals(names.get(0));
+    }
+
+    /**
+     * Stops the worker threads of an ensemble, other detectors hold no resources
+     * @param detector Detector that is no longer used, may be null
+     */
+    public static void release(PitchDetector detector) {
+        if (detector instanceof EnsembleDetector) {
+            ((EnsembleDetector) detector).release();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchDetector;
+
+public class EnsembleDetector implements PitchDetector {
+    private static final float AGREEMENT_CENTS = 50; // TWO ESTIMATES WITHIN HALF A SEMITONE AGREE
+    private static final int MAX_OCTAVE_ERROR = 2; // ESTIMATES UP TO TWO OCTAVES APART ARE CHECKED FOR AN OCTAVE ERROR
+    private static final float OCTAVE_MARGIN = 0.1f; // PERIODICITY THE LOWER ESTIMATE NEEDS ABOVE THE HIGHER ONE TO WIN
+
+    private final PitchDetector[] detectors;
+    private final float[][] workerData; // ONE FRAME COPY PER WORKER, THE LAST DETECTOR READS THE CALLER'S FRAME
+    private final List<Callable<PitchDetectionResult>> workerTasks = new ArrayList<Callable<PitchDetectionResult>>();
+    private final List<Future<PitchDetectionResult>> workerResults = new ArrayList<Future<PitchDetectionResult>>();
+    private final ExecutorService workerPool;
+
+    private final float[] pitches;
+    private final float[] probabilities;
+    private final float[] confidences;
+    private final float[] scores;
+    private final int[] members;
+    private final float sampleRate;
+    private final PitchDetectionResult result = new PitchDetectionResult();
+
+    /**
+     * Runs several detectors on the same frame concurrently and fuses their estimates
+     * One detector runs on the calling thread, the others on a fixed pool, so a frame takes as long as the slowest detector
+     * @param detectors Detectors to run, at least one
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     */
+    public EnsembleDetector(List<PitchDetector> detectors, float sampleRate, int frameSize) {
+        this.detectors = detectors.toArray(new PitchDetector[0]);
+        this.pitches = new float[this.detectors.length];
+        this.probabilities = new float[this.detectors.length];
+        this.confidences = new float[this.detectors.length];
+        this.scores = new float[this.detectors.length];
+        this.members = new int[this.detectors.length];
+        this.sampleRate = sampleRate;
+
+        int workers = this.detectors.length - 1;
+        this.workerData = new float[workers][frameSize];
+        this.workerPool = workers > 0 ? Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "FlutterFftEnsemble");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        for (int i = 0; i < workers; i++) {
+            final PitchDetector detector = this.detectors[i];
+            final float[] data = workerData[i];
+            workerTasks.add(() -> detector.getPitch(data));
+        }
+    }
+
+    @Override
+    public PitchDetectionResult getPitch(float[] audioBuffer) {
+        workerResults.clear();
+        for (int i = 0; i < workerTasks.size(); i++) {
+            System.arraycopy(audioBuffer, 0, workerData[i], 0, Math.min(audioBuffer.length, workerData[i].length));
+            workerResults.add(workerPool.submit(workerTasks.get(i)));
+        }
+
+        int last = detectors.length - 1;
+        PitchDetectionResult own = detectors[last].getPitch(audioBuffer);
+        pitches[last] = own.getPitch();
+        probabilities[last] = own.getProbability();
+
+        for (int i = 0; i < workerResults.size(); i++) {
+            try {
+                PitchDetectionResult workerResult = workerResults.get(i).get();
+                pitches[i] = workerResult.getPitch();
+                probabilities[i] = workerResult.getProbability();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pitches[i] = -1;
+            } catch (ExecutionException e) {
+                pitches[i] = -1;
+            }
+        }
+
+        fuse(audioBuffer);
+        return result;
+    }
+
+    /**
+     * Picks the estimate with the highest confidence plus the confidence of the detectors that agree with it
+     * Confidences are clamped to [0, 1], a negative one means the detector has no estimate of it and only its pitch counts
+     * An estimate an octave or two away from the best one is an octave error of one of them, the frame itself settles which:
+     * the higher estimate wins unless the frame repeats clearly better at the lower one's period
+     * The fused pitch is the confidence-weighted mean of the winning estimates, its probability is their confidence averaged
+     * over the detectors that rate themselves, so it drops with disagreement but not with the number of detectors
+     * @param audioBuffer Frame the detectors read
+     */
+    private void fuse(float[] audioBuffer) {
+        int rated = 0;
+        for (int i = 0; i < pitches.length; i++) {
+            confidences[i] = (probabilities[i] < 0) ? 0 : Math.min(1, probabilities[i]);
+            if (probabilities[i] >= 0) {
+                rated++;
+            }
+        }
+
+        int best = -1;
+        for (int i = 0; i < pitches.length; i++) {
+            if (pitches[i] == -1) {
+                continue;
+            }
+            scores[i] = 0;
+            members[i] = 0;
+            for (int j = 0; j < pitches.length; j++) {
+                if (agree(pitches[i], pitches[j])) {
+                    scores[i] += confidences[j];
+                    members[i]++;
+                }
+            }
+            if (best == -1 || scores[i] > scores[best] || (scores[i] == scores[best] && members[i] > members[best])) {
+                best = i;
+            }
+        }
+
+        if (best == -1) {
+            result.setPitch(-1);
+            result.setProbability(0);
+            result.setPitched(false);
+            return;
+        }
+
+        int octave = -1;
+        for (int i = 0; i < pitches.length; i++) {
+            if (pitches[i] != -1 && octaveApart(pitches[best], pitches[i])
+                    && (octave == -1 || scores[i] > scores[octave])) {
+                octave = i;
+            }
+        }
+
+        int winner = best;
+        float score = scores[best];
+        int agreeing = members[best];
+        if (octave != -1) {
+            int higher = (pitches[octave] > pitches[best]) ? octave : best;
+            int lower = (higher == best) ? octave : best;
+            float higherPeriodicity = AmdfDetector.periodicity(audioBuffer, sampleRate / pitches[higher]);
+            float lowerPeriodicity = AmdfDetector.periodicity(audioBuffer, sampleRate / pitches[lower]);
+            winner = (lowerPeriodicity > higherPeriodicity + OCTAVE_MARGIN) ? lower : higher;
+            score += scores[octave];
+            agreeing += members[octave];
+        }
+
+        float weightedSum = 0;
+        float weights = 0;
+        for (int i = 0; i < pitches.length; i++) {
+            if (agree(pitches[winner], pitches[i])) {
+                float weight = Math.max(confidences[i], 1e-6f);
+                weightedSum += pitches[i] * weight;
+                weights += weight;
+            }
+        }
+
+        result.setPitch(weightedSum / weights);
+        // Without any rated detector the share of agreeing detectors stands in
+        result.setProbability((rated > 0) ? Math.min(1, score / rated) : (float) agreeing / pitches.length);
+        result.setPitched(true);
+    }
+
+    private static boolean agree(float pitch, float other) {
+        return other != -1 && Math.abs(DeltaEmitter.centsBetween(pitch, other)) < AGREEMENT_CENTS;
+    }
+
+    /**
+     * @return true if the estimates are one or two octaves apart, within the agreement range
+     */
+    private static boolean octaveApart(float pitch, float other) {
+        float cents = Math.abs(DeltaEmitter.centsBetween(pitch, other));
+        for (int octaves = 1; octaves <= MAX_OCTAVE_ERROR; octaves++) {
+            if (Math.abs(cents - 1200 * octaves) < AGREEMENT_CENTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the worker threads, the detector can't be used afterwards
+     */
+    public void release() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+}
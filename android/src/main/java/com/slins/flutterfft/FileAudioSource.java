@@ -0,0 +1,154 @@
+package com.slins.flutterfft;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+public class FileAudioSource extends PacedAudioSource {
+    private final RandomAccessFile file;
+    private final boolean loop; // REWIND AT THE END OF THE FILE
+    private int sampleRate;
+    private int numChannels = 1;
+    private long dataStart = 0; // BYTE OFFSET OF THE FIRST SAMPLE
+    private long dataEnd; // BYTE OFFSET AFTER THE LAST SAMPLE
+
+    private byte[] byteData = new byte[0]; // RAW BYTES OF THE LAST READ
+
+    /**
+     * Replays a 16-bit PCM file as an audio source
+     * WAV files are detected by their RIFF header, anything else is treated as raw little-endian PCM
+     * @param path Path of the .wav or .pcm file
+     * @param sampleRate Sample rate of raw PCM files, ignored for WAV files
+     * @param numChannels Channel count of raw PCM files, ignored for WAV files
+     * @param realTime Deliver samples at the sample rate instead of as fast as possible
+     * @param loop Rewind at the end of the file instead of ending the stream
+     * @throws IOException If the file can't be opened or is not 16-bit PCM
+     */
+    public FileAudioSource(String path, int sampleRate, int numChannels, boolean realTime, boolean loop) throws IOException {
+        super(realTime);
+        this.file = new RandomAccessFile(path, "r");
+        this.sampleRate = sampleRate;
+        this.numChannels = numChannels;
+        this.loop = loop;
+        this.dataEnd = file.length();
+
+        try {
+            parseWavHeader();
+            // Looping over less than one sample frame would never fill a read
+            if (this.numChannels < 1 || dataEnd - dataStart < 2L * this.numChannels) {
+                throw new IOException("Audio file has no samples: " + path);
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        file.seek(dataStart);
+    }
+
+    private void parseWavHeader() throws IOException {
+        if (file.length() < 12) {
+            return;
+        }
+
+        byte[] header = new byte[12];
+        file.readFully(header);
+        if (!"RIFF".equals(new String(header, 0, 4, "US-ASCII")) || !"WAVE".equals(new String(header, 8, 4, "US-ASCII"))) {
+            return; // RAW PCM
+        }
+
+        byte[] chunk = new byte[8];
+        while (file.getFilePointer() + 8 <= file.length()) {
+            file.readFully(chunk);
+            String chunkId = new String(chunk, 0, 4, "US-ASCII");
+            long chunkSize = littleEndianInt(chunk, 4) & 0xFFFFFFFFL;
+
+            if ("fmt ".equals(chunkId)) {
+                byte[] format = new byte[16];
+                file.readFully(format);
+                int encoding = littleEndianShort(format, 0);
+                numChannels = littleEndianShort(format, 2);
+                sampleRate = littleEndianInt(format, 4);
+                int bitsPerSample = littleEndianShort(format, 14);
+                if (encoding != 1 || bitsPerSample != 16) {
+                    throw new IOException("Only 16-bit PCM WAV files are supported");
+                }
+                file.seek(file.getFilePointer() + chunkSize - 16 + (chunkSize & 1));
+            } else if ("data".equals(chunkId)) {
+                dataStart = file.getFilePointer();
+                dataEnd = Math.min(file.length(), dataStart + chunkSize);
+                return;
+            } else {
+                file.seek(file.getFilePointer() + chunkSize + (chunkSize & 1));
+            }
+        }
+
+        throw new IOException("WAV file has no data chunk");
+    }
+
+    private static int littleEndianShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int littleEndianInt(byte[] data, int offset) {
+        return littleEndianShort(data, offset) | (littleEndianShort(data, offset + 2) << 16);
+    }
+
+    /**
+     * Reads the next samples, mixing multichannel files down to mono
+     * A short read at the end of the file is zero-filled up to the requested size and reports the samples read
+     */
+    @Override
+    protected int generate(short[] audioData, int offset, int size) {
+        int frameBytes = 2 * numChannels;
+        if (byteData.length < size * frameBytes) {
+            byteData = new byte[size * frameBytes];
+        }
+
+        try {
+            int samples = 0;
+            while (samples < size) {
+                long remaining = dataEnd - file.getFilePointer();
+                if (remaining < frameBytes) {
+                    if (!loop) {
+                        break;
+                    }
+                    file.seek(dataStart);
+                    continue;
+                }
+
+                int bytes = (int) Math.min((long) (size - samples) * frameBytes, remaining - remaining % frameBytes);
+                file.readFully(byteData, 0, bytes);
+
+                for (int i = 0; i < bytes; i += frameBytes) {
+                    int sum = 0;
+                    for (int channel = 0; channel < numChannels; channel++) {
+                        sum += (short) littleEndianShort(byteData, i + 2 * channel);
+                    }
+                    audioData[offset + samples++] = (short) (sum / numChannels);
+                }
+            }
+            if (samples == 0) {
+                return -1;
+            }
+            Arrays.fill(audioData, offset + samples, offset + size, (short) 0);
+            return samples;
+        } catch (IOException e) {
+            // No plugin logging here, the file and synthetic sources must also run on a plain JVM
+            return -1;
+        }
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        try {
+            file.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+}
@@ -1,6 +1,8 @@
 package com.slins.flutterfft;
 
 import android.Manifest;
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Handler;
@@ -9,11 +11,12 @@ import android.os.Looper;
 import android.util.Log;
 import android.app.Activity;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-import be.tarsos.dsp.pitch.FastYin;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
@@ -35,6 +38,8 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
   final public static String TAG = "FlutterFftPlugin";
   final private static String RECORD_STREAM = "com.slins.flutterfft/record";
   final private static String AUDIO_STREAM = "com.slins.flutterfft/audio_stream";
+  final private static String CHROMA_STREAM = "com.slins.flutterfft/chroma_stream";
+  final private static String ANALYZER_STREAM = "com.slins.flutterfft/analyzer_stream";
   
   // ERROR CODES
   public static final String ERROR_MIC_PERMISSSION_DENIED = "ERROR_MIC_PERMISSION_DENIED";
@@ -45,9 +50,18 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
   public static final String ERROR_FAILED_RECORDER_UPDATE = "ERROR_FAILED_RECORDER_UPDATE";
   public static final String ERROR_WRONG_BUFFER_SIZE = "ERROR_WRONG_BUFFER_SIZE";
   public static final String ERROR_FAILED_FREQUENCIES_AND_OCTAVES_INSTANTIATION = "ERROR_FAILED_FREQUENCIES_AND_OCTAVES_INSTANTIATION";
+  public static final String ERROR_UNKNOWN_ANALYZER = "ERROR_UNKNOWN_ANALYZER";
+  public static final String ERROR_FAILED_CALIBRATION = "ERROR_FAILED_CALIBRATION";
+  public static final int DEFAULT_SAMPLE_RATE = 44100;
+  public static final float DEFAULT_SILENCE_THRESHOLD_DB = -50.0f;
 
   public static int bufferSize;
   private boolean doneBefore = false;
+  private String preparedConfig = null; // CONFIGURATION OF THE RECORDER BUILT BY prepare, NULL IF NONE
+  private Map<String, Object> inputOptions = null; // FILE OR SYNTHETIC INPUT FROM startRecorder, NULL FOR THE MICROPHONE
+  private List<String> detectorNames = null; // PITCH DETECTORS FROM startRecorder / prepare, NULL FOR YIN
+  private int decimation = 1; // CAPTURE SAMPLES PER ANALYSIS SAMPLE FROM startRecorder
+  private static final int WARM_UP_ITERATIONS = 4;
   
   // Audio processing pause/resume functionality
   private static volatile boolean isAudioProcessingPaused = false;
@@ -66,17 +80,23 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
 
   final private AudioModel audioModel = new AudioModel();
   final private PitchModel pitchModel = new PitchModel();
+  final private StartupMetrics startupMetrics = new StartupMetrics();
 
   // CRITICAL: Make channel volatile and check before use
   public static volatile MethodChannel channel;
   private EventChannel eventChannel;
   public static volatile EventChannel.EventSink eventSink;
+  private EventChannel chromaEventChannel;
+  public static volatile EventChannel.EventSink chromaSink;
+  private EventChannel analyzerEventChannel;
+  public static volatile EventChannel.EventSink analyzerSink;
 
   final static public Handler recordHandler = new Handler(Looper.getMainLooper());
   final static public Handler mainHandler = new Handler(Looper.getMainLooper());
 
   private ActivityPluginBinding activityBinding;
   private Activity activity;
+  private Context applicationContext; // STORES THE CALIBRATION PROFILES
 
   /**
    * Called when the plugin is attached to the Flutter engine
@@ -88,17 +108,20 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     // Log.d(TAG, "⚡ onAttachedToEngine called - Setting up channel");
     
     // Stop any existing recording when channel is recreated
-    if (audioModel.getAudioRecorder() != null) {
+    if (audioModel.getAudioSource() != null) {
       try {
         // Log.w(TAG, "Stopping existing recorder due to hot reload");
         recordHandler.removeCallbacksAndMessages(null);
-        audioModel.getAudioRecorder().stop();
-        audioModel.getAudioRecorder().release();
-        audioModel.setAudioRecorder(null);
+        audioModel.getAudioSource().stop();
+        audioModel.getAudioSource().release();
+        audioModel.setAudioSource(null);
       } catch (Exception e) {
         // Log.e(TAG, "Error cleaning up recorder: " + e.getMessage());
       }
     }
+    preparedConfig = null;
+    pitchModel.setStartupMetrics(startupMetrics);
+    applicationContext = flutterPluginBinding.getApplicationContext();
     
     channel = new MethodChannel(flutterPluginBinding.getBinaryMessenger(), RECORD_STREAM);
     channel.setMethodCallHandler(this);
@@ -108,6 +131,34 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     eventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), AUDIO_STREAM);
     eventChannel.setStreamHandler(this);
     // Log.d(TAG, "✅ Event channel set up successfully. EventChannel instance: " + eventChannel);
+
+    // Set up EventChannel for streaming chroma / constant-Q data
+    chromaEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), CHROMA_STREAM);
+    chromaEventChannel.setStreamHandler(new EventChannel.StreamHandler() {
+      @Override
+      public void onListen(Object arguments, EventChannel.EventSink events) {
+        chromaSink = events;
+      }
+
+      @Override
+      public void onCancel(Object arguments) {
+        chromaSink = null;
+      }
+    });
+
+    // Set up EventChannel for the events of the analyzers registered with addAnalyzer
+    analyzerEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), ANALYZER_STREAM);
+    analyzerEventChannel.setStreamHandler(new EventChannel.StreamHandler() {
+      @Override
+      public void onListen(Object arguments, EventChannel.EventSink events) {
+        analyzerSink = events;
+      }
+
+      @Override
+      public void onCancel(Object arguments) {
+        analyzerSink = null;
+      }
+    });
   }
 
   /**
@@ -171,10 +222,76 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
             Integer numChannels = call.argument("numChannels");
             Integer androidAudioSourceInt = call.argument("androidAudioSource");
             Double toleranceDouble = call.argument("tolerance");
+            detectorNames = call.argument("detectors");
             
             int androidAudioSource = (androidAudioSourceInt != null) ? androidAudioSourceInt : 1;
             float tolerance = (toleranceDouble != null) ? toleranceDouble.floatValue() : 1.0f;
-            
+
+            Boolean emitOnChange = call.argument("emitOnChange");
+            Double centsThreshold = call.argument("centsThreshold");
+            Integer keepAliveMillis = call.argument("keepAliveMillis");
+            Double minConfidence = call.argument("minConfidence");
+
+            pitchModel.setDeltaMode(
+                emitOnChange != null && emitOnChange,
+                (centsThreshold != null) ? centsThreshold.floatValue() : 1.0f,
+                (keepAliveMillis != null) ? keepAliveMillis : 1000);
+            pitchModel.setMinConfidence((minConfidence != null) ? minConfidence.floatValue() : 0.0f);
+
+            inputOptions = call.argument("input");
+
+            // Files and synthetic signals are not affected by the characteristics of the microphone
+            Boolean useCalibration = call.argument("useCalibration");
+            Object inputType = (inputOptions != null) ? inputOptions.get("type") : null;
+            CalibrationProfile calibration = ("file".equals(inputType) || "synthetic".equals(inputType))
+                ? null
+                : loadCalibration(useCalibration != null && useCalibration, androidAudioSource, numChannels);
+            pitchModel.setCalibration(calibration);
+
+            // Values set from Dart win, the calibrated ones only replace the defaults
+            if (sampleRate == null) {
+              sampleRate = (calibration != null) ? calibration.getSampleRate() : DEFAULT_SAMPLE_RATE;
+            }
+
+            Boolean adaptiveRate = call.argument("adaptiveRate");
+            Integer activeIntervalMillis = call.argument("activeIntervalMillis");
+            Integer idleIntervalMillis = call.argument("idleIntervalMillis");
+            Double silenceThresholdDb = call.argument("silenceThresholdDb");
+            Integer idleAfterMillis = call.argument("idleAfterMillis");
+
+            pitchModel.setAdaptiveRate(
+                adaptiveRate != null && adaptiveRate,
+                (activeIntervalMillis != null) ? activeIntervalMillis : 0,
+                (idleIntervalMillis != null) ? idleIntervalMillis : 1000,
+                (silenceThresholdDb != null) ? silenceThresholdDb.floatValue()
+                    : (calibration != null) ? calibration.getGateThresholdDb() : DEFAULT_SILENCE_THRESHOLD_DB,
+                (idleAfterMillis != null) ? idleAfterMillis : 2000);
+
+            Boolean chroma = call.argument("chroma");
+            Boolean cqtBins = call.argument("cqtBins");
+            pitchModel.setChromaOptions(chroma != null && chroma, cqtBins != null && cqtBins);
+
+            Boolean targetedMode = call.argument("targetedMode");
+            Integer harmonics = call.argument("harmonics");
+            pitchModel.setTargetedMode(targetedMode != null && targetedMode, (harmonics != null) ? harmonics : TargetedTuner.DEFAULT_HARMONICS);
+
+            Boolean preFilter = call.argument("preFilter");
+            Integer preFilterStages = call.argument("preFilterStages");
+            Boolean preFilterWindow = call.argument("preFilterWindow");
+            pitchModel.setPreFilterOptions(
+                preFilter != null && preFilter,
+                (preFilterStages != null) ? preFilterStages : PreFilter.DEFAULT_STAGES,
+                preFilterWindow != null && preFilterWindow);
+
+            Integer decimationInt = call.argument("decimation");
+            Integer smoothingFrames = call.argument("smoothingFrames");
+            Boolean streamEvents = call.argument("streamEvents");
+            decimation = (decimationInt != null) ? Math.max(1, decimationInt) : 1;
+            pitchModel.setChainOptions((smoothingFrames != null) ? smoothingFrames : 0, streamEvents == null || streamEvents);
+
+            Integer historyCapacity = call.argument("historyCapacity");
+            pitchModel.getPitchHistory().setCapacity((historyCapacity != null) ? historyCapacity : PitchHistory.DEFAULT_CAPACITY);
+
             // Log.d(TAG, "Starting recorder with params - tuning: " + tuning + ", sampleRate: " + sampleRate + ", channels: " + numChannels);
             
             startRecorder(tuning, numChannels, sampleRate, androidAudioSource, tolerance, result);
@@ -185,6 +302,113 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
         });
         break;
         
+      case "prepare":
+        taskScheduler.submit(() -> {
+          try {
+            List<Object> tuning = call.argument("tuning");
+            Integer sampleRate = call.argument("sampleRate");
+            Integer numChannels = call.argument("numChannels");
+            Integer androidAudioSourceInt = call.argument("androidAudioSource");
+            Double toleranceDouble = call.argument("tolerance");
+            detectorNames = call.argument("detectors");
+
+            int androidAudioSource = (androidAudioSourceInt != null) ? androidAudioSourceInt : 1;
+            float tolerance = (toleranceDouble != null) ? toleranceDouble.floatValue() : 1.0f;
+
+            // The prepared recorder is only reused when it was opened at the rate startRecorder will use
+            if (sampleRate == null) {
+              Boolean useCalibration = call.argument("useCalibration");
+              CalibrationProfile calibration = loadCalibration(useCalibration != null && useCalibration, androidAudioSource, numChannels);
+              sampleRate = (calibration != null) ? calibration.getSampleRate() : DEFAULT_SAMPLE_RATE;
+            }
+
+            prepare(tuning, numChannels, sampleRate, androidAudioSource, tolerance, result);
+          } catch (Exception e) {
+            mainHandler.post(() -> result.error("PREPARE_ERROR", e.getMessage(), null));
+          }
+        });
+        break;
+
+      case "calibrate":
+        taskScheduler.submit(() -> {
+          try {
+            Integer androidAudioSourceInt = call.argument("androidAudioSource");
+            Integer numChannels = call.argument("numChannels");
+            Integer durationMillis = call.argument("durationMillis");
+            calibrate(
+                (androidAudioSourceInt != null) ? androidAudioSourceInt : 1,
+                (numChannels != null) ? numChannels : 1,
+                (durationMillis != null) ? durationMillis : InputCalibrator.DEFAULT_DURATION_MILLIS,
+                result);
+          } catch (Exception e) {
+            mainHandler.post(() -> result.error(ERROR_FAILED_CALIBRATION, e.getMessage(), null));
+          }
+        });
+        break;
+
+      case "getCalibration":
+        Integer calibrationSource = call.argument("androidAudioSource");
+        Integer calibrationChannels = call.argument("numChannels");
+        CalibrationProfile storedCalibration = loadCalibration(true, (calibrationSource != null) ? calibrationSource : 1, calibrationChannels);
+        result.success((storedCalibration != null) ? storedCalibration.toMap() : null);
+        break;
+
+      case "clearCalibration":
+        Integer clearedSource = call.argument("androidAudioSource");
+        Integer clearedChannels = call.argument("numChannels");
+        result.success(applicationContext != null && CalibrationProfile.remove(calibrationPreferences(),
+            (clearedSource != null) ? clearedSource : 1,
+            (clearedChannels != null) ? clearedChannels : 1));
+        break;
+
+      case "getStartupMetrics":
+        result.success(startupMetrics.toMap());
+        break;
+
+      case "getLatencyStats":
+        result.success(pitchModel.getLatencyTracker().toMap());
+        break;
+
+      case "getStageTimings":
+        result.success(pitchModel.getStageTimings());
+        break;
+
+      case "addAnalyzer":
+        String analyzerId = call.argument("id");
+        String analyzerType = call.argument("type");
+        Integer window = call.argument("window");
+        Integer hop = call.argument("hop");
+        Map<String, Object> analyzerOptions = call.argument("options");
+        int analyzerWindow = (window != null) ? window : CaptureHub.DEFAULT_WINDOW;
+        int analyzerHop = (hop != null) ? hop : analyzerWindow;
+        if (analyzerWindow <= 0 || analyzerHop <= 0) {
+          result.error(ERROR_UNKNOWN_ANALYZER, "Analyzer window and hop must be positive, got " + analyzerWindow + " and " + analyzerHop, null);
+          break;
+        }
+
+        Analyzer analyzer = CaptureHub.createAnalyzer(analyzerType, analyzerOptions);
+        if (analyzerId == null || analyzer == null) {
+          result.error(ERROR_UNKNOWN_ANALYZER, "Unknown analyzer type: " + analyzerType, null);
+          break;
+        }
+        try {
+          pitchModel.getCaptureHub().add(analyzerId, analyzerType, analyzer, analyzerWindow, analyzerHop);
+          result.success("Analyzer added.");
+        } catch (Exception e) {
+          result.error(ERROR_UNKNOWN_ANALYZER, e.getMessage(), null);
+        }
+        break;
+
+      case "removeAnalyzer":
+        String removedId = call.argument("id");
+        result.success(removedId != null && pitchModel.getCaptureHub().remove(removedId));
+        break;
+
+      case "getPitchHistory":
+        Number sinceTimestamp = call.argument("sinceTimestamp");
+        result.success(pitchModel.getPitchHistory().since((sinceTimestamp != null) ? sinceTimestamp.longValue() : 0));
+        break;
+
       case "stopRecorder":
         // Log.d(TAG, "stopRecorder method called");
         taskScheduler.submit(() -> {
@@ -219,11 +443,11 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
         break;
         
       case "pauseAudioProcessing":
-        pauseAudioProcessing(result);
+        taskScheduler.submit(() -> pauseAudioProcessing(result));
         break;
         
       case "resumeAudioProcessing":
-        resumeAudioProcessing(result);
+        taskScheduler.submit(() -> resumeAudioProcessing(result));
         break;
         
       default:
@@ -271,6 +495,124 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     // Log.e(TAG, message);
   }
 
+  /**
+   * Builds the note table once per plugin instance
+   * @param result Callback to report failure
+   * @return true if the table is available, false otherwise
+   */
+  @RequiresApi(api = Build.VERSION_CODES.N)
+  private boolean buildFrequenciesAndOctaves(final Result result) {
+    if (!doneBefore) {
+      try {
+        // Log.d(TAG, "Getting frequencies and octaves");
+        pitchModel.getFrequenciesAndOctaves(result);
+        doneBefore = true;
+      } catch (Exception err) {
+        printError("Could not get frequencies and octaves", err);
+        mainHandler.post(() -> result.error(ERROR_FAILED_FREQUENCIES_AND_OCTAVES_INSTANTIATION, err.getMessage(), null));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Prepares the pipeline ahead of startRecorder to reduce time to first pitch
+   * Builds the note table, allocates buffers, constructs the recorder and the detector, and warms the detector on synthetic audio
+   * @param tuning List of target notes for tuning
+   * @param numChannels Number of audio channels
+   * @param sampleRate Audio sample rate in Hz
+   * @param androidAudioSource Audio input source
+   * @param tolerance Frequency tolerance for pitch detection
+   * @param result Callback to report success or failure
+   */
+  @RequiresApi(api = Build.VERSION_CODES.N)
+  @Override
+  public void prepare(List<Object> tuning, Integer numChannels, Integer sampleRate, int androidAudioSource, Float tolerance, final Result result) {
+    long prepareStart = System.nanoTime();
+
+    try {
+      if (audioModel.getAudioSource() != null && audioModel.getAudioSource().isRunning()) {
+        mainHandler.post(() -> result.error("PREPARE_ERROR", "Can't prepare while the recorder is running.", null));
+        return;
+      }
+
+      if (!buildFrequenciesAndOctaves(result)) {
+        return;
+      }
+
+      // The recorder can only be built once permission is granted, the rest is prepared regardless
+      inputOptions = null;
+      initializeAudioRecorder(result, tuning, sampleRate, numChannels, androidAudioSource, tolerance);
+      pitchModel.warmUp(audioModel.getAudioData(), audioModel.getFloatData(), sampleRate, WARM_UP_ITERATIONS);
+
+      if (checkPermission() && audioModel.getAudioSource().isInitialized()) {
+        preparedConfig = sampleRate + ":" + numChannels + ":" + androidAudioSource + ":" + detectorNames;
+      } else {
+        preparedConfig = null;
+      }
+
+      startupMetrics.setPrepareNanos(System.nanoTime() - prepareStart);
+      final boolean recorderPrepared = preparedConfig != null;
+      mainHandler.post(() -> result.success(recorderPrepared ? "Recorder prepared." : "Detector prepared, recorder needs permission."));
+    } catch (Exception e) {
+      preparedConfig = null;
+      mainHandler.post(() -> result.error("PREPARE_ERROR", e.getMessage(), null));
+    }
+  }
+
+  /**
+   * Measures the noise floor, DC offset and best native sample rate of an input source and stores the profile
+   * Runs once per device, input source and channel count, later sessions apply the stored profile with useCalibration
+   * A recorder opened by prepare holds the input, it is released and prepare has to run again
+   * @param androidAudioSource Audio input source to measure
+   * @param numChannels Number of audio channels
+   * @param durationMillis Length of the measurement, the input must stay silent
+   * @param result Callback receiving the profile
+   */
+  public void calibrate(int androidAudioSource, int numChannels, int durationMillis, final Result result) {
+    AudioSource audioSource = audioModel.getAudioSource();
+    if (audioSource != null && (audioSource.isRunning() || isAudioProcessingPaused)) {
+      mainHandler.post(() -> result.error(ERROR_FAILED_CALIBRATION, "Can't calibrate while the recorder is running or paused.", null));
+      return;
+    }
+    if (!checkPermission()) {
+      mainHandler.post(() -> result.error(ERROR_MIC_PERMISSSION_DENIED, "Calibration needs the microphone permission.", null));
+      return;
+    }
+    if (applicationContext == null) {
+      mainHandler.post(() -> result.error(ERROR_FAILED_CALIBRATION, "Plugin is not attached to an engine.", null));
+      return;
+    }
+    if (audioSource != null) {
+      audioSource.release();
+      audioModel.setAudioSource(null);
+      preparedConfig = null;
+    }
+
+    CalibrationProfile profile = InputCalibrator.calibrate(applicationContext, androidAudioSource, numChannels, audioModel.audioFormat, durationMillis);
+    profile.save(calibrationPreferences());
+    final Map<String, Object> profileMap = profile.toMap();
+    mainHandler.post(() -> result.success(profileMap));
+  }
+
+  private SharedPreferences calibrationPreferences() {
+    return applicationContext.getSharedPreferences(CalibrationProfile.PREFERENCES_NAME, Context.MODE_PRIVATE);
+  }
+
+  /**
+   * @param useCalibration Whether the stored profile is applied
+   * @param androidAudioSource Audio input source
+   * @param numChannels Number of audio channels, null for one
+   * @return The stored profile of the source, or null when not used or never calibrated
+   */
+  private CalibrationProfile loadCalibration(boolean useCalibration, int androidAudioSource, Integer numChannels) {
+    if (!useCalibration || applicationContext == null) {
+      return null;
+    }
+    return CalibrationProfile.load(calibrationPreferences(), androidAudioSource, (numChannels != null) ? numChannels : 1);
+  }
+
   /**
    * Starts the audio recorder with specified parameters
    * Initializes pitch detection and begins audio processing
@@ -287,29 +629,55 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     // Log.d(TAG, "startRecorder implementation called. Channel available: " + (channel != null));
     
     try {
-      checkIfPermissionGranted();
+      boolean usePrepared = (sampleRate + ":" + numChannels + ":" + androidAudioSource + ":" + detectorNames).equals(preparedConfig)
+          && inputOptions == null
+          && audioModel.getAudioSource() != null
+          && audioModel.getAudioSource().isInitialized();
+      preparedConfig = null;
+      startupMetrics.markStart(usePrepared);
+      pitchModel.getLatencyTracker().reset();
+      pitchModel.getPitchHistory().reset();
+
+      if (usePrepared) {
+        // Recorder, buffers and detector were built by prepare, only the tuning may have changed
+        pitchModel.setTolerance(tolerance);
+        pitchModel.setTuning(tuning);
+        pitchModel.parseTuning();
+      } else {
+        checkIfPermissionGranted();
 
-      if (!doneBefore) {
-        try {
-          // Log.d(TAG, "Getting frequencies and octaves");
-          pitchModel.getFrequenciesAndOctaves(result);
-          doneBefore = true;
-        } catch (Exception err) {
-          printError("Could not get frequencies and octaves", err);
-          mainHandler.post(() -> result.error(ERROR_FAILED_FREQUENCIES_AND_OCTAVES_INSTANTIATION, err.getMessage(), null));
+        if (!buildFrequenciesAndOctaves(result)) {
           return;
         }
+
+        // Log.d(TAG, "Initializing audio recorder");
+        initializeAudioRecorder(result, tuning, sampleRate, numChannels, androidAudioSource, tolerance);
       }
 
-      // Log.d(TAG, "Initializing audio recorder");
-      initializeAudioRecorder(result, tuning, sampleRate, numChannels, androidAudioSource, tolerance);
+      // The integer detector reads the captured samples, so it always runs at the capture rate
+      int captureRate = audioModel.getAudioSource().getSampleRate();
+      int analysisDecimation = DetectorFactory.isShort(detectorNames) ? 1 : decimation;
+      if (analysisDecimation > 1) {
+        // The detector built by initializeAudioRecorder or prepare runs at the capture rate
+        pitchModel.setPitchDetector(DetectorFactory.create(detectorNames, captureRate / (float) analysisDecimation, bufferSize / 2 / analysisDecimation));
+      }
 
-      // Log.d(TAG, "Starting recording");
-      audioModel.getAudioRecorder().startRecording();
-      recordHandler.removeCallbacksAndMessages(null);
+      pitchModel.configureChroma(captureRate, bufferSize / 2);
+      pitchModel.configureTargetedMode(captureRate / analysisDecimation, bufferSize / 2 / analysisDecimation);
+      pitchModel.configurePreFilter(captureRate);
+      pitchModel.getCaptureHub().start(captureRate, bufferSize / 2);
+      pitchModel.configureChain(audioModel, captureRate, analysisDecimation);
 
+      recordHandler.removeCallbacksAndMessages(null);
       audioModel.setRecorderTicker(() -> pitchModel.updateFrequencyAndNote(result, audioModel));
-      recordHandler.post(audioModel.getRecorderTicker());
+
+      // When started while paused, capture begins on resumeAudioProcessing
+      if (!isAudioProcessingPaused) {
+        // Log.d(TAG, "Starting recording");
+        audioModel.getAudioSource().start();
+        startupMetrics.markRecording();
+        recordHandler.post(audioModel.getRecorderTicker());
+      }
 
       // Log.d(TAG, "Recorder started successfully, posting success result");
       mainHandler.post(() -> {
@@ -335,16 +703,17 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     // Log.d(TAG, "stopRecorder implementation called");
     recordHandler.removeCallbacksAndMessages(null);
 
-    if (audioModel.getAudioRecorder() == null) {
+    if (audioModel.getAudioSource() == null) {
       // Log.e(TAG, "Recorder is null and cannot be stopped");
       mainHandler.post(() -> result.error(ERROR_RECORDER_IS_NULL, "Can't stop recorder, it is NULL.", null));
       return;
     }
 
     try {
-      audioModel.getAudioRecorder().stop();
-      audioModel.getAudioRecorder().release();
-      audioModel.setAudioRecorder(null);
+      audioModel.getAudioSource().stop();
+      audioModel.getAudioSource().release();
+      audioModel.setAudioSource(null);
+      preparedConfig = null;
 
       mainHandler.post(() -> result.success("Recorder stopped."));
     } catch (Exception e) {
@@ -397,9 +766,10 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
   public void initializeAudioRecorder(Result result, List<Object> tuning, Integer sampleRate, Integer numChannels, int androidAudioSource, Float tolerance) {
     // Log.d(TAG, "initializeAudioRecorder called");
     
-    if (audioModel.getAudioRecorder() != null) {
+    if (audioModel.getAudioSource() != null) {
       // Log.d(TAG, "Releasing existing audio recorder");
-      audioModel.getAudioRecorder().release();
+      audioModel.getAudioSource().release();
+      audioModel.setAudioSource(null);
     }
     
     bufferSize = 0;
@@ -409,11 +779,15 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
       // Log.d(TAG, "Calculated buffer size: " + bufferSize);
 
       if (bufferSize != AudioRecord.ERROR_BAD_VALUE) {
-        audioModel.setAudioRecorder(new AudioRecord(androidAudioSource, sampleRate, numChannels, audioModel.audioFormat, bufferSize));
+        audioModel.setAudioSource(createAudioSource(androidAudioSource, sampleRate, numChannels, bufferSize));
         audioModel.setAudioData(new short[bufferSize / 2]);
-        pitchModel.setPitchDetector(new FastYin(sampleRate, bufferSize / 2));
+        audioModel.setFloatData(new float[bufferSize / 2]);
+        ShortPitchDetector shortPitchDetector = DetectorFactory.createShort(detectorNames, audioModel.getAudioSource().getSampleRate(), bufferSize / 2);
+        pitchModel.setShortPitchDetector(shortPitchDetector);
+        pitchModel.setPitchDetector((shortPitchDetector == null) ? DetectorFactory.create(detectorNames, audioModel.getAudioSource().getSampleRate(), bufferSize / 2) : null);
         pitchModel.setTolerance(tolerance);
         pitchModel.setTuning(tuning);
+        pitchModel.parseTuning();
         // Log.d(TAG, "Audio recorder initialized successfully");
       } else {
         printError("Failed to initialize recorder, wrong buffer data: " + bufferSize);
@@ -425,6 +799,54 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     }
   }
 
+  /**
+   * Creates the audio source selected by the input options of startRecorder
+   * Options: type (microphone, file or synthetic), realTime, path, loop, channels, waveform, frequency, detuneCents, noise, seed
+   * @param androidAudioSource Audio input source for the microphone
+   * @param sampleRate Audio sample rate, raw PCM files and synthetic signals use it as well
+   * @param numChannels Number of audio channels for the microphone
+   * @param bufferSize Recorder buffer size in bytes
+   * @return The audio source, not started
+   * @throws IOException If the input file can't be opened
+   */
+  private AudioSource createAudioSource(int androidAudioSource, int sampleRate, int numChannels, int bufferSize) throws IOException {
+    Object type = (inputOptions != null) ? inputOptions.get("type") : null;
+
+    if ("file".equals(type) || "synthetic".equals(type)) {
+      boolean realTime = !Boolean.FALSE.equals(inputOptions.get("realTime"));
+
+      PacedAudioSource source;
+      if ("file".equals(type)) {
+        source = new FileAudioSource(
+            (String) inputOptions.get("path"),
+            sampleRate,
+            inputOptionNumber("channels", 1).intValue(),
+            realTime,
+            Boolean.TRUE.equals(inputOptions.get("loop")));
+      } else {
+        Object waveform = inputOptions.get("waveform");
+        source = new SyntheticAudioSource(
+            sampleRate,
+            (waveform != null) ? waveform.toString() : SyntheticAudioSource.WAVEFORM_SINE,
+            inputOptionNumber("frequency", 440).floatValue(),
+            inputOptionNumber("detuneCents", 0).floatValue(),
+            inputOptionNumber("noise", 0).floatValue(),
+            inputOptionNumber("seed", 0).longValue(),
+            realTime);
+      }
+      // Holds as much as the recorder buffer, so a replay drops audio between slow ticks like the microphone does
+      source.setBufferCapacity(bufferSize / 2);
+      return source;
+    }
+
+    return new AudioRecordSource(androidAudioSource, sampleRate, numChannels, audioModel.audioFormat, bufferSize);
+  }
+
+  private Number inputOptionNumber(String key, Number defaultValue) {
+    Object value = inputOptions.get(key);
+    return (value instanceof Number) ? (Number) value : defaultValue;
+  }
+
   /**
    * Called when the plugin is detached from the Flutter engine
    * Performs cleanup of resources and stops any active recording
@@ -435,17 +857,19 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
     // Log.d(TAG, "onDetachedFromEngine called - Cleaning up");
     
     // Stop recording if active
-    if (audioModel.getAudioRecorder() != null) {
+    if (audioModel.getAudioSource() != null) {
       try {
         recordHandler.removeCallbacksAndMessages(null);
-        audioModel.getAudioRecorder().stop();
-        audioModel.getAudioRecorder().release();
-        audioModel.setAudioRecorder(null);
+        audioModel.getAudioSource().stop();
+        audioModel.getAudioSource().release();
+        audioModel.setAudioSource(null);
       } catch (Exception e) {
         // Log.e(TAG, "Error stopping recorder in onDetachedFromEngine: " + e.getMessage());
       }
     }
     
+    pitchModel.setPitchDetector(null);
+
     if (channel != null) {
       channel.setMethodCallHandler(null);
       channel = null;
@@ -460,6 +884,19 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
       eventSink.endOfStream();
       eventSink = null;
     }
+
+    if (chromaEventChannel != null) {
+      chromaEventChannel.setStreamHandler(null);
+      chromaEventChannel = null;
+    }
+    chromaSink = null;
+
+    pitchModel.getCaptureHub().clear();
+    if (analyzerEventChannel != null) {
+      analyzerEventChannel.setStreamHandler(null);
+      analyzerEventChannel = null;
+    }
+    analyzerSink = null;
   }
 
   /**
@@ -515,20 +952,44 @@ public class FlutterFftPlugin implements ActivityAware, FlutterPlugin, PluginReg
 
   /**
    * Temporarily pauses audio processing to prevent feedback during sound playback
+   * Runs on the task scheduler like startRecorder and stopRecorder, so it keeps its order with them
+   * Only the flag is set here, the frame loop stops the source on its next frame, which is posted right away,
+   * and schedules nothing more, so nothing is read or analysed while paused. The source stays initialized
    * @param result Callback to report success
    */
   public void pauseAudioProcessing(Result result) {
     isAudioProcessingPaused = true;
-    result.success("Audio processing paused");
+
+    if (audioModel.getRecorderTicker() != null) {
+      recordHandler.removeCallbacks(audioModel.getRecorderTicker());
+      recordHandler.post(audioModel.getRecorderTicker());
+    }
+
+    mainHandler.post(() -> result.success("Audio processing paused"));
   }
 
   /**
    * Resumes audio processing after pause
+   * Runs on the task scheduler like the pause, the frame loop restarts the source that was kept initialized
+   * and reads its first frame one frame duration later
    * @param result Callback to report success
    */
   public void resumeAudioProcessing(Result result) {
     isAudioProcessingPaused = false;
-    result.success("Audio processing resumed");
+
+    try {
+      AudioSource audioSource = audioModel.getAudioSource();
+      if (audioSource != null && audioSource.isInitialized() && audioModel.getRecorderTicker() != null) {
+        startupMetrics.markRecording();
+        recordHandler.removeCallbacks(audioModel.getRecorderTicker());
+        recordHandler.post(audioModel.getRecorderTicker());
+      }
+    } catch (Exception e) {
+      mainHandler.post(() -> result.error("RESUME_ERROR", e.getMessage(), null));
+      return;
+    }
+
+    mainHandler.post(() -> result.success("Audio processing resumed"));
   }
 
   /**
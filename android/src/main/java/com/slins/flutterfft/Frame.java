@@ -0,0 +1,44 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+
+import io.flutter.plugin.common.MethodChannel;
+
+public class Frame {
+    public final short[] audioData; // CAPTURED 16-BIT SAMPLES
+    public final float[] floatData; // CAPTURED SAMPLES AS FLOAT, AT THE CAPTURE RATE
+    public final float[] analysisData; // DETECTOR INPUT, floatData ITSELF WITHOUT DECIMATION
+    public final int decimation; // CAPTURE SAMPLES PER ANALYSIS SAMPLE
+
+    public long captureTimeNanos = 0; // CAPTURE TIME OF THE FIRST SAMPLE
+    public long nowMillis = 0; // WALL CLOCK TIME THE FRAME WAS READ
+    public MethodChannel.Result result; // startRecorder RESULT, FOR ERROR REPORTING
+
+    public float frequency = -1; // DETECTED FREQUENCY, -1 WITHOUT A PITCH
+    public float probability = 0; // DETECTOR CONFIDENCE
+    public float cents = 0; // DEVIATION FROM THE TARGET, SET BY THE MAP STAGE
+    public ArrayList<Object> event; // PAYLOAD BUILT BY THE ENCODE STAGE
+
+    /**
+     * Buffers shared by the stages of a processor chain for one session
+     * @param audioData Capture buffer
+     * @param floatData Float conversion buffer of the same size
+     * @param decimation Capture samples per analysis sample, 1 to analyse at the capture rate
+     */
+    public Frame(short[] audioData, float[] floatData, int decimation) {
+        this.audioData = audioData;
+        this.floatData = floatData;
+        this.decimation = Math.max(1, decimation);
+        this.analysisData = (this.decimation > 1) ? new float[floatData.length / this.decimation] : floatData;
+    }
+
+    /**
+     * Clears the per-frame results before a new frame goes through the chain
+     */
+    public void clear() {
+        frequency = -1;
+        probability = 0;
+        cents = 0;
+        event = null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.slins.flutterfft;
+
+interface FrameProcessor {
+    /**
+     * Runs one stage of the processor chain
+     * @param frame Frame shared by every stage of the chain
+     * @return false to stop the chain for this frame
+     */
+    boolean process(Frame frame);
+}
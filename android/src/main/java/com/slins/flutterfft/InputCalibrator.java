@@ -0,0 +1,127 @@
+package com.slins.flutterfft;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.AudioRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class InputCalibrator {
+    public static final int DEFAULT_DURATION_MILLIS = 1500;
+    private static final int SETTLE_MILLIS = 250; // SKIPPED AT THE START, WHILE THE INPUT PATH SETTLES
+    private static final int BLOCK_MILLIS = 50; // LEVEL MEASUREMENT BLOCK
+    private static final float MIN_LEVEL_DB = -120; // REPORTED FOR DIGITAL SILENCE
+    private static final int[] FALLBACK_SAMPLE_RATES = {48000, 44100, 22050, 16000};
+
+    /**
+     * Measures an input source of the device: the best native sample rate it opens at, its noise floor and its DC offset
+     * The input must be silent while it runs, it opens its own recorder so the plugin recorder must be stopped
+     * @param context Context used to query the native output rate
+     * @param androidAudioSource Audio input source
+     * @param numChannels Number of audio channels
+     * @param audioFormat PCM encoding
+     * @param durationMillis Length of the measurement after the settling time
+     * @return The measured profile, not stored yet
+     */
+    public static CalibrationProfile calibrate(Context context, int androidAudioSource, int numChannels, int audioFormat, int durationMillis) {
+        for (int sampleRate : candidateSampleRates(context)) {
+            int bufferSize = AudioRecord.getMinBufferSize(sampleRate, numChannels, audioFormat);
+            if (bufferSize <= 0) {
+                continue;
+            }
+
+            AudioRecordSource source = new AudioRecordSource(androidAudioSource, sampleRate, numChannels, audioFormat, bufferSize * 3);
+            try {
+                if (!source.isInitialized()) {
+                    continue;
+                }
+                source.start();
+                return measure(source, androidAudioSource, numChannels, durationMillis);
+            } finally {
+                if (source.isRunning()) {
+                    source.stop();
+                }
+                source.release();
+            }
+        }
+        throw new IllegalStateException("No sample rate could be opened for audio source " + androidAudioSource);
+    }
+
+    /**
+     * The native rate of the device comes first, capturing at it avoids resampling in the audio framework
+     * @param context Context used to query the native output rate, may be null
+     * @return Sample rates to try, best first
+     */
+    private static List<Integer> candidateSampleRates(Context context) {
+        List<Integer> rates = new ArrayList<>();
+        AudioManager audioManager = (context != null) ? (AudioManager) context.getSystemService(Context.AUDIO_SERVICE) : null;
+        String nativeRate = (audioManager != null) ? audioManager.getProperty(AudioManager.PROPERTY_OUTPUT_SAMPLE_RATE) : null;
+        if (nativeRate != null) {
+            try {
+                rates.add(Integer.parseInt(nativeRate));
+            } catch (NumberFormatException e) {
+                FlutterFftPlugin.printError("Invalid native sample rate: " + nativeRate);
+            }
+        }
+        for (int rate : FALLBACK_SAMPLE_RATES) {
+            if (!rates.contains(rate)) {
+                rates.add(rate);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Reads a running source and measures its DC offset and noise floor
+     * Both are medians over short blocks, so a click or a cough during the measurement does not shift them
+     * @param source Running audio source
+     * @param androidAudioSource Audio input source the profile is stored for
+     * @param numChannels Number of audio channels the profile is stored for
+     * @param durationMillis Length of the measurement after the settling time
+     * @return The measured profile
+     */
+    public static CalibrationProfile measure(AudioSource source, int androidAudioSource, int numChannels, int durationMillis) {
+        int sampleRate = source.getSampleRate();
+        short[] block = new short[Math.max(1, sampleRate * BLOCK_MILLIS / 1000)];
+
+        for (int skipped = 0, settle = sampleRate * SETTLE_MILLIS / 1000; skipped < settle; ) {
+            int read = source.read(block, 0, Math.min(block.length, settle - skipped));
+            if (read <= 0) {
+                throw new IllegalStateException("Audio source ended during calibration");
+            }
+            skipped += read;
+        }
+
+        float[] levels = new float[Math.max(1, durationMillis / BLOCK_MILLIS)];
+        float[] means = new float[levels.length];
+        for (int b = 0; b < levels.length; b++) {
+            int read = source.read(block, 0, block.length);
+            if (read <= 0) {
+                throw new IllegalStateException("Audio source ended during calibration");
+            }
+
+            long sum = 0;
+            double sumSquares = 0;
+            for (int i = 0; i < read; i++) {
+                sum += block[i];
+                sumSquares += (double) block[i] * block[i];
+            }
+
+            // Level of the block around its own mean, so the offset does not count as noise
+            double mean = (double) sum / read;
+            means[b] = (float) mean;
+            double rms = Math.sqrt(Math.max(0, sumSquares / read - mean * mean)) / 32768.0;
+            levels[b] = (rms > 0) ? Math.max(MIN_LEVEL_DB, (float) (20 * Math.log10(rms))) : MIN_LEVEL_DB;
+        }
+
+        return new CalibrationProfile(androidAudioSource, numChannels, sampleRate, median(levels), median(means), System.currentTimeMillis());
+    }
+
+    private static float median(float[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return (values.length % 2 == 1) ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+}
@@ -0,0 +1,105 @@
+package com.slins.flutterfft;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+
+public class IntegerYin implements ShortPitchDetector {
+    public static final float DEFAULT_THRESHOLD = 0.20f; // SAME DEFAULT AS FastYin
+    public static final float DEFAULT_MIN_FREQUENCY = 40; // LOWEST DETECTABLE PITCH, BOUNDS THE LAG SEARCH
+    public static final float DEFAULT_MAX_FREQUENCY = 2000; // HIGHEST DETECTABLE PITCH
+
+    private final float sampleRate;
+    private final float threshold;
+    private final int minTau;
+    private final int maxTau;
+    private final int window; // INTEGRATION WINDOW, ONE PERIOD OF THE LOWEST PITCH
+
+    private final long[] difference; // DIFFERENCE FUNCTION, COMPUTED IN THE INTEGER DOMAIN
+    private final float[] normalized; // CUMULATIVE MEAN NORMALIZED DIFFERENCE, ONLY maxTau VALUES
+    private final PitchDetectionResult result = new PitchDetectionResult();
+
+    public IntegerYin(float sampleRate, int frameSize) {
+        this(sampleRate, frameSize, DEFAULT_MIN_FREQUENCY, DEFAULT_MAX_FREQUENCY, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * YIN pitch detector working directly on 16-bit PCM
+     * The O(window * lag) difference function uses int differences and long accumulators, only the O(lag) normalization uses floats
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     * @param minFrequency Lowest pitch to look for in Hz
+     * @param maxFrequency Highest pitch to look for in Hz
+     * @param threshold YIN absolute threshold
+     */
+    public IntegerYin(float sampleRate, int frameSize, float minFrequency, float maxFrequency, float threshold) {
+        this.sampleRate = sampleRate;
+        this.threshold = threshold;
+        this.maxTau = Math.min((int) Math.ceil(sampleRate / minFrequency), frameSize / 2);
+        this.minTau = Math.max(2, (int) Math.floor(sampleRate / maxFrequency));
+        this.window = Math.min(maxTau, frameSize - maxTau - 1);
+        this.difference = new long[maxTau + 2];
+        this.normalized = new float[maxTau + 2];
+    }
+
+    @Override
+    public PitchDetectionResult getPitch(short[] audioData) {
+        differenceFunction(audioData);
+        cumulativeMeanNormalizedDifference();
+
+        int tau = absoluteThreshold();
+        if (tau == -1) {
+            result.setPitch(-1);
+            result.setProbability(0);
+            result.setPitched(false);
+            return result;
+        }
+
+        result.setPitch(sampleRate / parabolicInterpolation(tau));
+        result.setProbability(1 - Math.min(1, normalized[tau]));
+        result.setPitched(true);
+        return result;
+    }
+
+    private void differenceFunction(short[] audioData) {
+        difference[0] = 0;
+        for (int tau = 1; tau <= maxTau + 1; tau++) {
+            long sum = 0;
+            for (int j = 0; j < window; j++) {
+                int delta = audioData[j] - audioData[j + tau];
+                sum += delta * (long) delta;
+            }
+            difference[tau] = sum;
+        }
+    }
+
+    private void cumulativeMeanNormalizedDifference() {
+        normalized[0] = 1;
+        long runningSum = 0;
+        for (int tau = 1; tau <= maxTau + 1; tau++) {
+            runningSum += difference[tau];
+            normalized[tau] = runningSum == 0 ? 1 : (float) ((double) difference[tau] * tau / runningSum);
+        }
+    }
+
+    private int absoluteThreshold() {
+        for (int tau = minTau; tau <= maxTau; tau++) {
+            if (normalized[tau] < threshold) {
+                while (tau + 1 <= maxTau && normalized[tau + 1] < normalized[tau]) {
+                    tau++;
+                }
+                return tau;
+            }
+        }
+        return -1;
+    }
+
+    private float parabolicInterpolation(int tau) {
+        float left = normalized[tau - 1];
+        float center = normalized[tau];
+        float right = normalized[tau + 1];
+        float denominator = left + right - 2 * center;
+        if (denominator == 0) {
+            return tau;
+        }
+        return tau + (left - right) / (2 * denominator);
+    }
+}
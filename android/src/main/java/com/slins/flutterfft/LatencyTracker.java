@@ -0,0 +1,66 @@
+package com.slins.flutterfft;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LatencyTracker {
+    private static final int WINDOW = 512; // NUMBER OF RECENT FRAMES THE PERCENTILES ARE COMPUTED OVER
+
+    private final long[] latencies = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int count = 0;
+    private int next = 0;
+    private long total = 0;
+
+    /**
+     * Forgets all recorded latencies
+     */
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+        total = 0;
+    }
+
+    /**
+     * Records the latency of one frame
+     * @param captureTimeNanos Capture time of the first sample of the frame
+     * @param dispatchTimeNanos Time the frame was handed to the EventChannel
+     */
+    public synchronized void record(long captureTimeNanos, long dispatchTimeNanos) {
+        if (captureTimeNanos <= 0) {
+            return;
+        }
+        latencies[next] = dispatchTimeNanos - captureTimeNanos;
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+        total++;
+    }
+
+    /**
+     * Builds the latency statistics sent back to Dart
+     * Percentiles are in milliseconds over the last frames, -1 when no frame was recorded
+     * @return Map with count, p50Millis, p90Millis, p99Millis and maxMillis
+     */
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("count", total);
+
+        System.arraycopy(latencies, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+
+        stats.put("p50Millis", percentile(0.50));
+        stats.put("p90Millis", percentile(0.90));
+        stats.put("p99Millis", percentile(0.99));
+        stats.put("maxMillis", count == 0 ? -1.0 : sorted[count - 1] / 1e6);
+        return stats;
+    }
+
+    private double percentile(double fraction) {
+        if (count == 0) {
+            return -1.0;
+        }
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+}
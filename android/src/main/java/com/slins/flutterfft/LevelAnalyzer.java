@@ -0,0 +1,34 @@
+package com.slins.flutterfft;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LevelAnalyzer implements Analyzer {
+    @Override
+    public void configure(int sampleRate, int window) {
+    }
+
+    /**
+     * @return Map with rmsDb and peakDb in dBFS, -Infinity for digital silence
+     */
+    @Override
+    public Map<String, Object> analyze(short[] ring, int start, int window) {
+        int mask = ring.length - 1;
+        long sum = 0;
+        int peak = 0;
+        for (int i = 0; i < window; i++) {
+            int sample = ring[(start + i) & mask];
+            sum += (long) sample * sample;
+            peak = Math.max(peak, Math.abs(sample));
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("rmsDb", 20 * Math.log10(Math.sqrt((double) sum / window) / 32768.0));
+        event.put("peakDb", 20 * Math.log10(peak / 32768.0));
+        return event;
+    }
+
+    @Override
+    public void release() {
+    }
+}
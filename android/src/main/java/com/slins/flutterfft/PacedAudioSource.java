@@ -0,0 +1,139 @@
+package com.slins.flutterfft;
+
+public abstract class PacedAudioSource implements AudioSource {
+    private final boolean realTime; // DELIVER SAMPLES AT THE SAMPLE RATE INSTEAD OF AS FAST AS POSSIBLE
+    private volatile boolean running = false;
+    private int bufferCapacity = 0; // SAMPLES HELD WHILE NOBODY READS, LIKE THE AudioRecord BUFFER, 0 FOR ONE READ
+    private long startNanos = 0;
+    private long position = 0; // SAMPLES SINCE START BEFORE THE NEXT SAMPLE DELIVERED
+    private long gapAt = -1; // POSITION WHERE AN OVERRUN DROPPED SAMPLES, -1 WITHOUT ONE
+    private long gapTo = 0; // POSITION THE STREAM RESUMES AT AFTER THE GAP
+    private long captureTimeNanos = 0;
+    private short[] skipData = new short[0];
+
+    protected PacedAudioSource(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    /**
+     * Fills the buffer with the next samples of the source
+     * @return Number of samples written, or -1 at the end of the source
+     */
+    protected abstract int generate(short[] audioData, int offset, int size);
+
+    /**
+     * Sets how much audio the source keeps between reads in real time mode, what is captured beyond it is lost like in an AudioRecord overrun
+     * @param bufferCapacity Number of samples, 0 for one read
+     */
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    @Override
+    public void start() {
+        startNanos = System.nanoTime();
+        position = 0;
+        gapAt = -1;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void release() {
+        running = false;
+    }
+
+    /**
+     * In real time mode this is when the first sample of the last read was due, otherwise the position on the replay timeline
+     */
+    @Override
+    public long getCaptureTimeNanos() {
+        return captureTimeNanos;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return true;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Reads like a non-blocking AudioRecord, nothing waits so the read can run on the main thread
+     * In real time mode the position follows the wall clock: until a full read has been captured 0 is returned,
+     * and when the buffer is full the oldest samples are kept and the newer ones are dropped until the next read
+     */
+    @Override
+    public int read(short[] audioData, int offset, int size) {
+        if (!realTime) {
+            captureTimeNanos = startNanos + position * 1000000000L / getSampleRate();
+            int read = generate(audioData, offset, size);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        long captured = (System.nanoTime() - startNanos) * getSampleRate() / 1000000000L;
+        if (position == gapAt) {
+            // The buffer was drained up to the overrun, it now holds what was captured after it
+            skip(gapTo - gapAt);
+            position = gapTo;
+            gapAt = -1;
+        }
+        long bufferEnd = position + Math.max(bufferCapacity, size);
+        if (gapAt < 0 && captured > bufferEnd) {
+            gapAt = bufferEnd;
+            gapTo = captured;
+        }
+        long available = (gapAt < 0) ? captured - position : (gapAt - position) + (captured - gapTo);
+        if (available < size) {
+            return 0;
+        }
+
+        int read = 0;
+        while (read < size) {
+            if (position == gapAt) {
+                skip(gapTo - gapAt);
+                position = gapTo;
+                gapAt = -1;
+            }
+            if (read == 0) {
+                captureTimeNanos = startNanos + position * 1000000000L / getSampleRate();
+            }
+
+            int chunk = (int) ((gapAt < 0) ? size - read : Math.min(size - read, gapAt - position));
+            int generated = generate(audioData, offset + read, chunk);
+            if (generated <= 0) {
+                return (read > 0) ? read : generated;
+            }
+            read += generated;
+            position += generated;
+        }
+        return read;
+    }
+
+    /**
+     * Advances the source over samples that were lost in an overrun
+     * @param samples Number of samples to drop
+     */
+    private void skip(long samples) {
+        if (skipData.length == 0) {
+            skipData = new short[Math.max(1, getSampleRate() / 10)];
+        }
+        while (samples > 0) {
+            int generated = generate(skipData, 0, (int) Math.min(samples, skipData.length));
+            if (generated <= 0) {
+                return;
+            }
+            samples -= generated;
+        }
+    }
+}
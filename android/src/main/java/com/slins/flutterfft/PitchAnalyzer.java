@@ -0,0 +1,61 @@
+package com.slins.flutterfft;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchDetector;
+
+public class PitchAnalyzer implements Analyzer {
+    private final List<String> detectorNames;
+    private PitchDetector pitchDetector = null;
+    private float[] floatData = null; // DETECTOR INPUT, OWNED BY THIS ANALYZER
+
+    /**
+     * Pitch detection with its own window and detectors, independent of the tuning of the main recorder
+     * @param detectorNames Detector names as in startRecorder, null for yin
+     */
+    public PitchAnalyzer(List<String> detectorNames) {
+        this.detectorNames = detectorNames;
+    }
+
+    @Override
+    public void configure(int sampleRate, int window) {
+        DetectorFactory.release(pitchDetector);
+        pitchDetector = DetectorFactory.create(detectorNames, sampleRate, window);
+        floatData = new float[window];
+    }
+
+    /**
+     * @return Map with frequency (-1 without a pitch), probability, and the nearest equal-tempered note, octave and cents
+     */
+    @Override
+    public Map<String, Object> analyze(short[] ring, int start, int window) {
+        int mask = ring.length - 1;
+        for (int i = 0; i < window; i++) {
+            floatData[i] = ring[(start + i) & mask];
+        }
+
+        PitchDetectionResult detection = pitchDetector.getPitch(floatData);
+        float frequency = detection.getPitch();
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("frequency", frequency);
+        event.put("probability", detection.getProbability());
+        if (frequency > 0) {
+            double midi = 69 + 12 * Math.log(frequency / 440.0) / Math.log(2);
+            int nearest = (int) Math.round(midi);
+            event.put("note", ChromaModel.PITCH_CLASSES[((nearest % 12) + 12) % 12]);
+            event.put("octave", nearest / 12 - 1);
+            event.put("cents", (float) (100 * (midi - nearest)));
+        }
+        return event;
+    }
+
+    @Override
+    public void release() {
+        DetectorFactory.release(pitchDetector);
+        pitchDetector = null;
+    }
+}
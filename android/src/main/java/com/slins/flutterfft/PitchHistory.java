@@ -0,0 +1,101 @@
+package com.slins.flutterfft;
+
+public class PitchHistory {
+    public static final int DEFAULT_CAPACITY = 1024; // ABOUT 4 MINUTES OF DETECTED FRAMES AT THE DEFAULT SUBSCRIPTION DURATION OF 0.25 SECONDS
+    public static final int FIELDS = 4; // TIME, FREQUENCY, CENTS, CONFIDENCE
+
+    // ONE ARRAY PER FIELD, INDEXED BY RING POSITION
+    private long[] times;
+    private float[] frequencies;
+    private float[] cents;
+    private float[] confidences;
+
+    private int count = 0;
+    private int next = 0;
+
+    public PitchHistory(int capacity) {
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        capacity = Math.max(0, capacity);
+        times = new long[capacity];
+        frequencies = new float[capacity];
+        cents = new float[capacity];
+        confidences = new float[capacity];
+        count = 0;
+        next = 0;
+    }
+
+    /**
+     * Changes the number of frames kept, dropping the recorded ones if the capacity changes
+     * @param capacity Maximum number of frames, 0 disables the history
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (Math.max(0, capacity) != times.length) {
+            allocate(capacity);
+        }
+    }
+
+    public synchronized int getCapacity() {
+        return times.length;
+    }
+
+    /**
+     * Forgets all recorded frames
+     */
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+    }
+
+    /**
+     * Records one detected frame, overwriting the oldest one when full
+     * @param timeNanos Capture time of the first sample of the frame
+     * @param frequency Detected frequency in Hz
+     * @param cents Deviation from the target frequency in cents
+     * @param confidence Detector confidence
+     */
+    public synchronized void record(long timeNanos, float frequency, float cents, float confidence) {
+        if (times.length == 0) {
+            return;
+        }
+        times[next] = timeNanos;
+        frequencies[next] = frequency;
+        this.cents[next] = cents;
+        confidences[next] = confidence;
+        next = (next + 1) % times.length;
+        count = Math.min(count + 1, times.length);
+    }
+
+    /**
+     * Packs the frames captured after a given time, oldest first, as [time, frequency, cents, confidence] per frame
+     * The array is sent to Dart as a single Float64List
+     * @param sinceNanos Only frames captured strictly after this time are returned, 0 returns everything
+     * @return Packed frames, FIELDS values per frame
+     */
+    public synchronized double[] since(long sinceNanos) {
+        if (count == 0) {
+            return new double[0];
+        }
+        int capacity = times.length;
+        int oldest = (next - count + capacity) % capacity;
+
+        // Times only grow within a session, so the first newer frame is found by walking back from the newest
+        int skipped = count;
+        while (skipped > 0 && times[(oldest + skipped - 1) % capacity] > sinceNanos) {
+            skipped--;
+        }
+
+        int length = count - skipped;
+        double[] packed = new double[length * FIELDS];
+        for (int i = 0; i < length; i++) {
+            int index = (oldest + skipped + i) % capacity;
+            packed[i * FIELDS] = times[index];
+            packed[i * FIELDS + 1] = frequencies[index];
+            packed[i * FIELDS + 2] = cents[index];
+            packed[i * FIELDS + 3] = confidences[index];
+        }
+        return packed;
+    }
+}
@@ -1,6 +1,5 @@
 package com.slins.flutterfft;
 
-import android.media.AudioRecord;
 import android.os.Build;
 import android.util.Log;
 import android.util.Pair;
@@ -8,9 +7,13 @@ import android.util.Pair;
 import androidx.annotation.RequiresApi;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import be.tarsos.dsp.pitch.PitchDetectionResult;
 import be.tarsos.dsp.pitch.PitchDetector;
 import io.flutter.plugin.common.MethodChannel;
 
@@ -26,100 +29,84 @@ public class PitchModel implements PitchInterface {
     private ArrayList<Pair<String, Integer>> tuningData = new ArrayList<Pair<String, Integer>>();
     private float[] targetFrequencies = null;
     private boolean isOnPitch = false;
+    private float probability = 0;
+    private float minConfidence = 0;
 
     private PitchDetector pitchDetector;
+    private ShortPitchDetector shortPitchDetector = null;
+    private TargetedTuner targetedTuner = null;
+    private boolean targetedMode = false;
+    private int harmonics = TargetedTuner.DEFAULT_HARMONICS;
+    private PreFilter preFilter = null;
+    private boolean preFilterEnabled = false;
+    private int preFilterStages = PreFilter.DEFAULT_STAGES;
+    private boolean preFilterWindow = false;
+    private int smoothingFrames = 0;
+    private boolean streamEvents = true;
+    private ProcessorChain chain = null;
+    private Frame frame = null;
+    private CalibrationProfile calibration = null;
+    private final DeltaEmitter deltaEmitter = new DeltaEmitter();
+    private final AdaptiveScheduler adaptiveScheduler = new AdaptiveScheduler();
+    private StartupMetrics startupMetrics;
+    private final LatencyTracker latencyTracker = new LatencyTracker();
+    private final PitchHistory pitchHistory = new PitchHistory(PitchHistory.DEFAULT_CAPACITY);
+    private final CaptureHub captureHub = new CaptureHub();
+    private ChromaModel chromaModel = null;
+    private boolean chromaEnabled = false;
+    private boolean cqtEnabled = false;
 
     ArrayList<FrequencyData<String, Float, Integer>> frequencyData = new ArrayList<FrequencyData<String, Float, Integer>>();
 
     /**
      * Updates frequency and note detection from audio input
-     * Processes audio data to detect pitch and sends results via EventChannel
+     * Reads a frame and runs it through the processor chain built by configureChain
      * @param result MethodChannel result for error handling
      * @param audioModel Contains audio recorder and data
      */
     @Override
     public void updateFrequencyAndNote(MethodChannel.Result result, AudioModel audioModel) {
         try {
-            if (audioModel.getAudioRecorder().getState() == AudioRecord.STATE_INITIALIZED) {
-                audioModel.getAudioRecorder().read(audioModel.getAudioData(), 0, FlutterFftPlugin.bufferSize / 2);
+            AudioSource audioSource = audioModel.getAudioSource();
 
-                parseTuning();
-
-                ArrayList<Object> returnData = new ArrayList<>();
-
-                short[] bufferData = audioModel.getAudioData();
-                float[] floatData = new float[FlutterFftPlugin.bufferSize / 2];
-
-                for (int i = 0; i < bufferData.length; i++) {
-                    floatData[i] = (float) bufferData[i];
+            // Pausing only sets the flag, the source is stopped here and no frame is scheduled until resumeAudioProcessing posts the ticker again
+            if (FlutterFftPlugin.isAudioProcessingPaused()) {
+                if (audioSource != null && audioSource.isRunning()) {
+                    audioSource.stop();
                 }
+                return;
+            }
 
-                FlutterFftPlugin.frequency = pitchDetector.getPitch(floatData).getPitch();
-                // Log.d(TAG, "Frequency detected: " + FlutterFftPlugin.frequency);
-
-                // Check if audio processing is paused (e.g., during sound playback)
-                if (FlutterFftPlugin.isAudioProcessingPaused()) {
-                    // Skip processing but continue the recording loop
-                    FlutterFftPlugin.recordHandler.postDelayed(audioModel.getRecorderTicker(), audioModel.subsDurationMillis);
+            if (audioSource.isInitialized()) {
+                // A source stopped by a pause, or between level checks during silence, restarts one frame ahead so the next read gets fresh audio
+                if (!audioSource.isRunning()) {
+                    audioSource.start();
+                    postFrame(audioModel, adaptiveScheduler.getFrameMillis());
                     return;
                 }
 
-                if (FlutterFftPlugin.frequency != -1) {
-                    // Log.d(TAG, "Processing frequency: " + FlutterFftPlugin.frequency);
-                    try {
-                        processPitch(FlutterFftPlugin.frequency, result);
-                    } catch(Exception e) {
-                        FlutterFftPlugin.printError("Could not process pitch", e);
-                        return;
-                    }
+                int read = audioSource.read(audioModel.getAudioData(), 0, FlutterFftPlugin.bufferSize / 2);
+                if (read < 0) {
+                    FlutterFftPlugin.printError("Audio source ended");
+                    return;
+                }
+                if (read == 0) {
+                    // A paced file or synthetic source has not captured a full frame since the last tick
+                    scheduleNextFrame(audioModel);
+                    return;
+                }
 
-                    try {
-                        returnData.add(tolerance);
-                        returnData.add(FlutterFftPlugin.frequency);
-                        returnData.add(FlutterFftPlugin.note);
-                        returnData.add(FlutterFftPlugin.target);
-                        returnData.add(FlutterFftPlugin.distance);
-                        returnData.add(FlutterFftPlugin.octave);
-                        returnData.add(FlutterFftPlugin.nearestNote);
-                        returnData.add(FlutterFftPlugin.nearestTarget);
-                        returnData.add(FlutterFftPlugin.nearestDistance);
-                        returnData.add(FlutterFftPlugin.nearestOctave);
-                        returnData.add(isOnPitch);
-                    } catch(Exception err) {
-                        FlutterFftPlugin.printError("Could not set return data", err);
-                        return;
-                    }
+                frame.captureTimeNanos = audioSource.getCaptureTimeNanos();
+                frame.nowMillis = System.currentTimeMillis();
+                frame.result = result;
+                chain.run(frame);
 
-                    try {
-                        // Log.d(TAG, "Sending data to Flutter via EventChannel: " + returnData);
-                        
-                        // CRITICAL FIX: Use EventChannel instead of MethodChannel for streaming
-                        FlutterFftPlugin.mainHandler.post(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    if (FlutterFftPlugin.eventSink != null) {
-                                        // Log.d(TAG, "EventSink is available, sending data...");
-                                        FlutterFftPlugin.eventSink.success(returnData);
-                                        // Log.d(TAG, "✅ Data sent successfully to Flutter via EventChannel");
-                                    } else {
-                                        // Log.e(TAG, "❌ EventSink is NULL! Cannot send data to Flutter");
-                                    }
-                                } catch (Exception e) {
-                                    // Log.e(TAG, "❌ Error sending data via EventChannel: " + e.getMessage(), e);
-                                    // e.printStackTrace();
-                                }
-                            }
-                        });
-                    } catch (Exception err) {
-                        FlutterFftPlugin.printError("Failed to post to main handler", err);
-                        return;
-                    }
+                if (adaptiveScheduler.isIdle()) {
+                    audioSource.stop();
                 }
-
-                FlutterFftPlugin.recordHandler.postDelayed(audioModel.getRecorderTicker(), audioModel.subsDurationMillis);
+                scheduleNextFrame(audioModel);
             } else {
-                FlutterFftPlugin.printError("Recorder is not initialized. State: " + audioModel.getAudioRecorder().getState());
+                FlutterFftPlugin.printError("Audio source is not initialized");
                 return;
             }
         } catch (Exception e) {
@@ -128,6 +115,211 @@ public class PitchModel implements PitchInterface {
         }
     }
 
+    /**
+     * Composes the processor chain of a session from the configured options, leaving out the stages that are not used
+     * Call after the detectors, chroma, targeted mode and pre-filter are configured
+     * Stages: dc, fanout, gate, filter, convert, chroma, decimate, detect, smooth, map, history, encode, dispatch
+     * @param audioModel Contains the capture buffers shared by the stages
+     * @param sampleRate Capture sample rate in Hz
+     * @param decimation Capture samples per analysis sample, the detectors must be built for the decimated rate and frame size
+     */
+    public void configureChain(AudioModel audioModel, int sampleRate, int decimation) {
+        frame = new Frame(audioModel.getAudioData(), audioModel.getFloatData(), decimation);
+        adaptiveScheduler.setFrameMillis((int) ((frame.audioData.length * 1000L + sampleRate - 1) / sampleRate));
+        chain = new ProcessorChain();
+
+        // The integer detector reads the 16-bit samples as they are, the float buffer is only filled when something needs it
+        final boolean shortPath = shortPitchDetector != null && targetedTuner == null && frame.decimation == 1;
+
+        // The calibrated offset of the input is removed before anything reads the samples
+        if (calibration != null && calibration.hasDcOffset()) {
+            final int offset = Math.round(calibration.getDcOffset());
+            chain.add("dc", f -> {
+                for (int i = 0; i < f.audioData.length; i++) {
+                    f.audioData[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, f.audioData[i] - offset));
+                }
+                return true;
+            });
+        }
+
+        // Registered analyzers see every captured frame, before the gate and the filters change it
+        chain.add("fanout", f -> {
+            captureHub.process(f.audioData, f.audioData.length, f.captureTimeNanos);
+            return true;
+        });
+
+        // During silence only the level is checked, at the idle rate
+        if (adaptiveScheduler.isEnabled()) {
+            chain.add("gate", f -> adaptiveScheduler.shouldAnalyze(f.audioData, f.audioData.length, f.nowMillis));
+        }
+
+        if (preFilter != null && shortPath) {
+            chain.add("filter", f -> {
+                preFilter.process(f.audioData, f.audioData.length, f.captureTimeNanos);
+                return true;
+            });
+        }
+
+        if (!shortPath || chromaModel != null) {
+            chain.add("convert", f -> {
+                for (int i = 0; i < f.audioData.length; i++) {
+                    f.floatData[i] = (float) f.audioData[i];
+                }
+                return true;
+            });
+        }
+
+        if (preFilter != null && !shortPath) {
+            chain.add("filter", f -> {
+                preFilter.process(f.floatData, f.floatData.length, f.captureTimeNanos);
+                return true;
+            });
+        }
+
+        if (chromaModel != null) {
+            chain.add("chroma", f -> {
+                try {
+                    chromaModel.process(f.floatData);
+                    final Map<String, Object> chromaData = chromaModel.toEvent();
+                    chromaData.put("captureTimeNanos", f.captureTimeNanos);
+                    FlutterFftPlugin.mainHandler.post(() -> {
+                        if (FlutterFftPlugin.chromaSink != null) {
+                            FlutterFftPlugin.chromaSink.success(chromaData);
+                        }
+                    });
+                } catch (Exception err) {
+                    FlutterFftPlugin.printError("Could not process chroma", err);
+                }
+                return true;
+            });
+        }
+
+        if (frame.decimation > 1) {
+            chain.add("decimate", new Decimator(sampleRate, frame.decimation));
+        }
+
+        chain.add("detect", f -> {
+            PitchDetectionResult detection;
+            if (targetedTuner != null) {
+                detection = targetedTuner.getPitch(f.analysisData);
+            } else if (shortPath) {
+                detection = shortPitchDetector.getPitch(f.audioData);
+            } else {
+                detection = pitchDetector.getPitch(f.analysisData);
+            }
+            f.frequency = detection.getPitch();
+            f.probability = detection.getProbability();
+            FlutterFftPlugin.frequency = f.frequency;
+            probability = f.probability;
+            adaptiveScheduler.onDetection(f.frequency != -1 && f.probability >= minConfidence, f.nowMillis);
+            // Log.d(TAG, "Frequency detected: " + FlutterFftPlugin.frequency);
+            return true;
+        });
+
+        if (smoothingFrames > 1) {
+            final PitchSmoother pitchSmoother = new PitchSmoother(smoothingFrames);
+            chain.add("smooth", f -> {
+                if (f.frequency != -1 && f.probability >= minConfidence) {
+                    f.frequency = pitchSmoother.smooth(f.frequency);
+                    FlutterFftPlugin.frequency = f.frequency;
+                }
+                return true;
+            });
+        }
+
+        // Low confidence frames are dropped here instead of being filtered in Dart
+        chain.add("map", f -> {
+            if (f.frequency == -1 || f.probability < minConfidence) {
+                return false;
+            }
+            // Log.d(TAG, "Processing frequency: " + FlutterFftPlugin.frequency);
+            processPitch(f.frequency, f.result);
+            f.cents = DeltaEmitter.centsBetween(f.frequency, FlutterFftPlugin.target);
+            // Marked here, the dispatch stage is left out when events are not streamed
+            if (startupMetrics != null) {
+                startupMetrics.markFirstPitch();
+            }
+            return true;
+        });
+
+        // Every detected frame goes into the history, including the ones delta mode keeps from Dart
+        if (pitchHistory.getCapacity() > 0) {
+            chain.add("history", f -> {
+                pitchHistory.record(f.captureTimeNanos, f.frequency, f.cents, f.probability);
+                return true;
+            });
+        }
+
+        if (streamEvents) {
+            chain.add("encode", f -> {
+                ArrayList<Object> returnData = new ArrayList<>();
+                returnData.add(tolerance);
+                returnData.add(FlutterFftPlugin.frequency);
+                returnData.add(FlutterFftPlugin.note);
+                returnData.add(FlutterFftPlugin.target);
+                returnData.add(FlutterFftPlugin.distance);
+                returnData.add(FlutterFftPlugin.octave);
+                returnData.add(FlutterFftPlugin.nearestNote);
+                returnData.add(FlutterFftPlugin.nearestTarget);
+                returnData.add(FlutterFftPlugin.nearestDistance);
+                returnData.add(FlutterFftPlugin.nearestOctave);
+                returnData.add(isOnPitch);
+                returnData.add(f.probability);
+                returnData.add(f.captureTimeNanos);
+                f.event = returnData;
+                return true;
+            });
+
+            chain.add("dispatch", f -> {
+                if (!deltaEmitter.shouldEmit(FlutterFftPlugin.note, FlutterFftPlugin.octave, f.cents, isOnPitch, System.currentTimeMillis())) {
+                    return false;
+                }
+
+                final ArrayList<Object> returnData = f.event;
+                final long captureTimeNanos = f.captureTimeNanos;
+                FlutterFftPlugin.mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (FlutterFftPlugin.eventSink != null) {
+                                latencyTracker.record(captureTimeNanos, System.nanoTime());
+                                FlutterFftPlugin.eventSink.success(returnData);
+                            }
+                        } catch (Exception e) {
+                            // Log.e(TAG, "Error sending data via EventChannel: " + e.getMessage(), e);
+                        }
+                    }
+                });
+                return true;
+            });
+        }
+    }
+
+    /**
+     * @return Timing of each stage of the current processor chain, empty before the first session
+     */
+    public Map<String, Object> getStageTimings() {
+        return (chain != null) ? chain.toMap() : new HashMap<String, Object>();
+    }
+
+    /**
+     * Posts the next frame, at the rate chosen by the adaptive scheduler
+     * @param audioModel Contains the recorder ticker and the subscription duration
+     */
+    private void scheduleNextFrame(AudioModel audioModel) {
+        postFrame(audioModel, adaptiveScheduler.nextDelayMillis(audioModel.subsDurationMillis));
+    }
+
+    /**
+     * Schedules the ticker in place of any tick already queued, so a resume that posts it while a frame runs does not start a second frame loop
+     * @param audioModel Contains the recorder ticker
+     * @param delayMillis Delay before the frame is read
+     */
+    private void postFrame(AudioModel audioModel, long delayMillis) {
+        FlutterFftPlugin.recordHandler.removeCallbacks(audioModel.getRecorderTicker());
+        FlutterFftPlugin.recordHandler.postDelayed(audioModel.getRecorderTicker(), delayMillis);
+    }
+
     /**
      * Processes detected pitch frequency to determine note and tuning accuracy
      * Calculates closest note, octave, and distance from target frequency
@@ -136,7 +328,7 @@ public class PitchModel implements PitchInterface {
      */
     @Override
     public void processPitch(float pitchInHz, MethodChannel.Result result) {
-        if (tuning.get(0) != "None") {
+        if (!"None".equals(tuning.get(0))) {
             float smallestTargetDistance = Float.MAX_VALUE;
             float smallestCurrentDistance = Float.MAX_VALUE;
             int targetIdx = 0;
@@ -184,7 +376,7 @@ public class PitchModel implements PitchInterface {
                 FlutterFftPlugin.nearestTarget = targetFrequencies[targetIdx];
                 return;
             }
-        } else if (tuning.get(0) == "None") {
+        } else if ("None".equals(tuning.get(0))) {
             float smallestDistance = Float.MAX_VALUE;
             float secondSmallestDistance = Float.MAX_VALUE;
 
@@ -327,9 +519,61 @@ public class PitchModel implements PitchInterface {
     }
 
     public void setPitchDetector(PitchDetector pitchDetector) {
+        DetectorFactory.release(this.pitchDetector);
         this.pitchDetector = pitchDetector;
     }
 
+    /**
+     * Selects the integer-domain detector, which takes precedence over the float detector when set
+     * @param shortPitchDetector Detector reading 16-bit samples, null to use the float detector
+     */
+    public void setShortPitchDetector(ShortPitchDetector shortPitchDetector) {
+        this.shortPitchDetector = shortPitchDetector;
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    public PitchHistory getPitchHistory() {
+        return pitchHistory;
+    }
+
+    public CaptureHub getCaptureHub() {
+        return captureHub;
+    }
+
+    public void setStartupMetrics(StartupMetrics startupMetrics) {
+        this.startupMetrics = startupMetrics;
+    }
+
+    /**
+     * Runs the pitch detector on synthetic audio so the first real frame does not pay for class loading and JIT
+     * @param audioData Integer detector input buffer, cleared afterwards
+     * @param floatData Detector input buffer, cleared afterwards
+     * @param sampleRate Audio sample rate in Hz
+     * @param iterations Number of warm-up detections
+     */
+    public void warmUp(short[] audioData, float[] floatData, int sampleRate, int iterations) {
+        for (int i = 0; i < floatData.length; i++) {
+            double phase = 2 * Math.PI * 110 * i / sampleRate;
+            floatData[i] = (float) (8000 * Math.sin(phase) + 4000 * Math.sin(2 * phase) + 2000 * Math.sin(3 * phase));
+            audioData[i] = (short) floatData[i];
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            if (shortPitchDetector != null) {
+                shortPitchDetector.getPitch(audioData);
+            } else {
+                pitchDetector.getPitch(floatData);
+            }
+        }
+
+        Arrays.fill(audioData, (short) 0);
+        Arrays.fill(floatData, 0);
+        deltaEmitter.reset();
+    }
+
     public void setTolerance(Float tolerance) {
         this.tolerance = tolerance;
     }
@@ -338,6 +582,122 @@ public class PitchModel implements PitchInterface {
         this.tuning = tuning;
     }
 
+    /**
+     * Selects whether the constant-Q stage runs, takes effect on the next configureChroma call
+     * @param chromaEnabled Stream a 12-bin chroma vector per frame
+     * @param cqtEnabled Also stream the per-note CQT magnitudes
+     */
+    public void setChromaOptions(boolean chromaEnabled, boolean cqtEnabled) {
+        this.chromaEnabled = chromaEnabled;
+        this.cqtEnabled = cqtEnabled;
+    }
+
+    /**
+     * Builds the constant-Q stage for the current recorder configuration, or removes it when disabled
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     */
+    public void configureChroma(int sampleRate, int frameSize) {
+        if (chromaEnabled || cqtEnabled) {
+            chromaModel = new ChromaModel(sampleRate, frameSize, frequencyData, cqtEnabled, preFilterWindow);
+        } else {
+            chromaModel = null;
+        }
+    }
+
+    /**
+     * Selects whether a set tuning is detected with the targeted tuner, takes effect on the next configureTargetedMode call
+     * @param targetedMode Only evaluate the tuning targets instead of running a full pitch search
+     * @param harmonics Number of harmonics per target, including the fundamental
+     */
+    public void setTargetedMode(boolean targetedMode, int harmonics) {
+        this.targetedMode = targetedMode;
+        this.harmonics = harmonics;
+    }
+
+    /**
+     * Builds the targeted tuner for the parsed tuning, which then takes precedence over the other detectors
+     * Without a tuning there are no targets and the general-purpose detector is kept
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     */
+    public void configureTargetedMode(int sampleRate, int frameSize) {
+        if (targetedMode && !"None".equals(tuning.get(0)) && targetFrequencies != null && targetFrequencies.length > 0) {
+            targetedTuner = new TargetedTuner(sampleRate, frameSize, targetFrequencies, harmonics);
+        } else {
+            targetedTuner = null;
+        }
+    }
+
+    /**
+     * Selects the conditioning applied before detection, takes effect on the next configurePreFilter and configureChroma calls
+     * @param preFilterEnabled Whether frames are filtered before detection
+     * @param preFilterStages Number of cascaded high-pass sections
+     * @param preFilterWindow Whether the chroma stage applies a Hann window to its copy of the frame, the detectors always read the unwindowed frame
+     */
+    public void setPreFilterOptions(boolean preFilterEnabled, int preFilterStages, boolean preFilterWindow) {
+        this.preFilterEnabled = preFilterEnabled;
+        this.preFilterStages = preFilterStages;
+        this.preFilterWindow = preFilterWindow;
+    }
+
+    /**
+     * Builds the pre-filter for the range of the parsed tuning, or removes it when disabled
+     * @param sampleRate Audio sample rate in Hz
+     */
+    public void configurePreFilter(int sampleRate) {
+        if (preFilterEnabled) {
+            preFilter = PreFilter.forTuning(sampleRate, "None".equals(tuning.get(0)) ? null : targetFrequencies, preFilterStages);
+        } else {
+            preFilter = null;
+        }
+    }
+
+    /**
+     * Configures adaptive duty-cycling of the analysis rate
+     * @param adaptiveRate Whether the rate adapts to the signal
+     * @param activeIntervalMillis Interval while a pitched signal is present, 0 uses the subscription duration
+     * @param idleIntervalMillis Interval of the energy-only check during silence, the source is stopped between checks
+     * @param silenceThresholdDb Level in dBFS below which a frame is silent
+     * @param idleAfterMillis Time without a pitch before backing off
+     */
+    public void setAdaptiveRate(boolean adaptiveRate, int activeIntervalMillis, int idleIntervalMillis, float silenceThresholdDb, int idleAfterMillis) {
+        adaptiveScheduler.configure(adaptiveRate, activeIntervalMillis, idleIntervalMillis, silenceThresholdDb, idleAfterMillis);
+    }
+
+    /**
+     * Applies the stored calibration of the input, its DC offset is removed by the next configureChain call
+     * The calibrated sample rate and gate threshold are chosen by the caller, they only replace values Dart did not set
+     * @param calibration Profile of the input source, null to run uncalibrated
+     */
+    public void setCalibration(CalibrationProfile calibration) {
+        this.calibration = calibration;
+    }
+
+    /**
+     * Selects the optional stages of the processor chain, takes effect on the next configureChain call
+     * @param smoothingFrames Number of frames the detected frequency is median-filtered over, 0 or 1 to disable
+     * @param streamEvents Whether pitch events are sent over the EventChannel, false for history or chroma only pipelines
+     */
+    public void setChainOptions(int smoothingFrames, boolean streamEvents) {
+        this.smoothingFrames = smoothingFrames;
+        this.streamEvents = streamEvents;
+    }
+
+    public void setMinConfidence(Float minConfidence) {
+        this.minConfidence = minConfidence;
+    }
+
+    /**
+     * Configures emit-on-change delta mode
+     * @param emitOnChange Only emit when note, octave, on-pitch state or deviation changes
+     * @param centsThreshold Minimum deviation change in cents that triggers an event
+     * @param keepAliveMillis Maximum interval between events while a pitch is detected
+     */
+    public void setDeltaMode(boolean emitOnChange, float centsThreshold, int keepAliveMillis) {
+        deltaEmitter.configure(emitOnChange, centsThreshold, keepAliveMillis);
+    }
+
     /**
      * Parses tuning configuration and generates target frequencies
      * Converts string notation (e.g., "E4", "A#3") to frequency values
@@ -345,7 +705,7 @@ public class PitchModel implements PitchInterface {
     public void parseTuning() {
         tuningData = new ArrayList<Pair<String, Integer>>();
 
-        if (tuning.get(0) != "None") {
+        if (!"None".equals(tuning.get(0))) {
             for (int i = 0; i < tuning.size(); i++) {
                 if (tuning.get(i).toString().length() == 2) {
                     tuningData.add(new Pair<String, Integer>(Character.toString(tuning.get(i).toString().charAt(0)), (int) tuning.get(i).toString().charAt(1) - 50 + 2));
@@ -0,0 +1,39 @@
+package com.slins.flutterfft;
+
+import java.util.Arrays;
+
+public class PitchSmoother {
+    private final float[] recent; // LAST DETECTED FREQUENCIES, RING BUFFER
+    private final float[] sorted;
+    private int count = 0;
+    private int next = 0;
+
+    /**
+     * Median filter over the last detected frequencies, removes single-frame octave jumps
+     * @param frames Number of frames the median is taken over
+     */
+    public PitchSmoother(int frames) {
+        recent = new float[Math.max(1, frames)];
+        sorted = new float[recent.length];
+    }
+
+    public void reset() {
+        count = 0;
+        next = 0;
+    }
+
+    /**
+     * Adds a detected frequency and returns the median of the recent ones
+     * @param frequency Detected frequency in Hz
+     * @return Median frequency in Hz
+     */
+    public float smooth(float frequency) {
+        recent[next] = frequency;
+        next = (next + 1) % recent.length;
+        count = Math.min(count + 1, recent.length);
+
+        System.arraycopy(recent, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        return (count % 2 == 1) ? sorted[count / 2] : (sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+    }
+}
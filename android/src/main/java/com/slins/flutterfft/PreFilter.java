@@ -0,0 +1,120 @@
+package com.slins.flutterfft;
+
+public class PreFilter {
+    public static final int DEFAULT_STAGES = 2; // CASCADED HIGH-PASS SECTIONS, 12 dB/OCTAVE EACH
+    public static final float DEFAULT_LOW_HZ = 70; // LOW CUTOFF WITHOUT A TUNING, ABOVE 50 / 60 Hz MAINS HUM
+    public static final float DEFAULT_HIGH_HZ = 1500; // UPPER BAND EDGE WITHOUT A TUNING
+    private static final float BELOW_LOWEST_TARGET = 0.5f; // AN OCTAVE BELOW, THE LOWEST FUNDAMENTAL LOSES ABOUT 1 dB, LESS THAN THE BAND-PASS SKIRT
+    private static final float ABOVE_HIGHEST_TARGET = 4; // KEEPS THE FIRST HARMONICS OF THE HIGHEST TARGET
+    private static final float BUTTERWORTH_Q = 0.7071f;
+    private static final long MAX_JITTER_NANOS = 10000000L; // CAPTURE TIME DRIFT TOLERATED BEFORE A FRAME COUNTS AS A NEW STRETCH OF AUDIO
+
+    private final BiquadFilter[] highPass;
+    private final BiquadFilter bandPass = new BiquadFilter();
+    private final int sampleRate;
+    private long nextCaptureNanos = -1; // CAPTURE TIME RIGHT AFTER THE LAST FILTERED FRAME, -1 BEFORE THE FIRST
+
+    /**
+     * Conditioning applied to each frame before detection: cascaded high-pass sections against hum and rumble,
+     * and a band-pass around the range of interest against hiss
+     * Frames are not windowed here, a window would fade out most periods of the frame for the time-domain detectors
+     * The sections keep their state from one frame to the next while the audio is contiguous. After a gap they are primed on the first sample
+     * and ring at the cutoff for a few of its periods, which biases the period the detectors find in that frame
+     * Everything is allocated here, processing runs in place on the frame buffer
+     * @param sampleRate Audio sample rate in Hz
+     * @param lowHz Lowest frequency of interest in Hz
+     * @param highHz Highest frequency of interest in Hz
+     * @param stages Number of cascaded high-pass sections
+     */
+    public PreFilter(int sampleRate, float lowHz, float highHz, int stages) {
+        highHz = Math.min(highHz, sampleRate * 0.45f);
+        lowHz = Math.min(lowHz, highHz / 2);
+
+        this.sampleRate = sampleRate;
+        highPass = new BiquadFilter[Math.max(0, stages)];
+        for (int i = 0; i < highPass.length; i++) {
+            highPass[i] = new BiquadFilter();
+            highPass[i].setHighPass(sampleRate, lowHz, BUTTERWORTH_Q);
+        }
+
+        // The geometric center keeps both band edges at -3 dB
+        float center = (float) Math.sqrt(lowHz * highHz);
+        bandPass.setBandPass(sampleRate, center, center / (highHz - lowHz));
+    }
+
+    /**
+     * Builds the filter for a tuning, from an octave below the lowest target to the fourth harmonic of the highest
+     * @param targetFrequencies Targets of the tuning in Hz, null or empty without a tuning
+     * @return Pre-filter for the tuning range, or the default range without a tuning
+     */
+    public static PreFilter forTuning(int sampleRate, float[] targetFrequencies, int stages) {
+        if (targetFrequencies == null || targetFrequencies.length == 0) {
+            return new PreFilter(sampleRate, DEFAULT_LOW_HZ, DEFAULT_HIGH_HZ, stages);
+        }
+
+        float lowest = Float.MAX_VALUE;
+        float highest = 0;
+        for (float target : targetFrequencies) {
+            if (target > 0) {
+                lowest = Math.min(lowest, target);
+                highest = Math.max(highest, target);
+            }
+        }
+        if (highest == 0) {
+            return new PreFilter(sampleRate, DEFAULT_LOW_HZ, DEFAULT_HIGH_HZ, stages);
+        }
+        return new PreFilter(sampleRate, lowest * BELOW_LOWEST_TARGET, highest * ABOVE_HIGHEST_TARGET, stages);
+    }
+
+    /**
+     * Filters a frame in place
+     * @param data Frame samples
+     * @param length Number of samples
+     * @param captureTimeNanos Capture time of the first sample, a frame that does not follow the last one primes the sections
+     */
+    public void process(float[] data, int length, long captureTimeNanos) {
+        boolean prime = startsStretch(length, captureTimeNanos);
+        for (BiquadFilter filter : highPass) {
+            if (prime) {
+                filter.prime(data[0]);
+            }
+            filter.process(data, length);
+        }
+        if (prime) {
+            bandPass.prime(data[0]);
+        }
+        bandPass.process(data, length);
+    }
+
+    /**
+     * Filters 16-bit samples in place, for the integer detector
+     * @param data Frame samples
+     * @param length Number of samples
+     * @param captureTimeNanos Capture time of the first sample, a frame that does not follow the last one primes the sections
+     */
+    public void process(short[] data, int length, long captureTimeNanos) {
+        boolean prime = startsStretch(length, captureTimeNanos);
+        for (BiquadFilter filter : highPass) {
+            if (prime) {
+                filter.prime(data[0]);
+            }
+            filter.process(data, length);
+        }
+        if (prime) {
+            bandPass.prime(data[0]);
+        }
+        bandPass.process(data, length);
+    }
+
+    /**
+     * Checks whether a frame starts a new stretch of audio, a frame skipped by the gate or lost by the source also counts as a gap
+     * @param length Number of samples of the frame
+     * @param captureTimeNanos Capture time of its first sample
+     * @return true if the sections have to be primed for this frame
+     */
+    private boolean startsStretch(int length, long captureTimeNanos) {
+        boolean gap = nextCaptureNanos == -1 || Math.abs(captureTimeNanos - nextCaptureNanos) > MAX_JITTER_NANOS;
+        nextCaptureNanos = captureTimeNanos + length * 1000000000L / sampleRate;
+        return gap;
+    }
+}
@@ -0,0 +1,77 @@
+package com.slins.flutterfft;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProcessorChain {
+    private final List<String> names = new ArrayList<String>();
+    private final List<FrameProcessor> processors = new ArrayList<FrameProcessor>();
+
+    // PER-STAGE TIMING, INDEXED LIKE processors
+    private long[] counts = new long[0];
+    private long[] totalNanos = new long[0];
+    private long[] maxNanos = new long[0];
+    private long[] lastNanos = new long[0];
+
+    /**
+     * Appends a stage, stages run in the order they were added
+     * @param name Name the stage is reported under in the timings
+     * @param processor The stage
+     * @return This chain
+     */
+    public ProcessorChain add(String name, FrameProcessor processor) {
+        names.add(name);
+        processors.add(processor);
+
+        int size = processors.size();
+        counts = new long[size];
+        totalNanos = new long[size];
+        maxNanos = new long[size];
+        lastNanos = new long[size];
+        return this;
+    }
+
+    /**
+     * Runs the stages on a frame until one of them stops it
+     * @param frame Frame with the captured samples
+     */
+    public void run(Frame frame) {
+        frame.clear();
+        for (int i = 0; i < processors.size(); i++) {
+            long start = System.nanoTime();
+            boolean next = processors.get(i).process(frame);
+            record(i, System.nanoTime() - start);
+            if (!next) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void record(int stage, long nanos) {
+        counts[stage]++;
+        totalNanos[stage] += nanos;
+        maxNanos[stage] = Math.max(maxNanos[stage], nanos);
+        lastNanos[stage] = nanos;
+    }
+
+    /**
+     * Builds the stage timings sent back to Dart, in chain order
+     * A stage that stopped no frame has the same count as the first stage, later stages only count the frames that reached them
+     * @return Map of stage name to count, meanMillis, maxMillis and lastMillis
+     */
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> timings = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            Map<String, Object> stage = new HashMap<>();
+            stage.put("count", counts[i]);
+            stage.put("meanMillis", counts[i] == 0 ? 0.0 : totalNanos[i] / 1e6 / counts[i]);
+            stage.put("maxMillis", maxNanos[i] / 1e6);
+            stage.put("lastMillis", lastNanos[i] / 1e6);
+            timings.put(names.get(i), stage);
+        }
+        return timings;
+    }
+}
@@ -0,0 +1,7 @@
+package com.slins.flutterfft;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+
+interface ShortPitchDetector {
+    PitchDetectionResult getPitch(short[] audioData);
+}
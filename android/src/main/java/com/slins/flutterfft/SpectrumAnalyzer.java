@@ -0,0 +1,91 @@
+package com.slins.flutterfft;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import be.tarsos.dsp.util.fft.FFT;
+import be.tarsos.dsp.util.fft.HannWindow;
+
+public class SpectrumAnalyzer implements Analyzer {
+    private static final float MIN_BAND_FREQUENCY = 20; // LOWEST EDGE OF THE LOGARITHMIC BANDS
+
+    private final int bands; // 0 SENDS EVERY FFT BIN
+    private int sampleRate = 0;
+    private FFT fft = null;
+    private float[] fftData = null; // FFT INPUT, TRANSFORMED IN PLACE
+    private float[] magnitudes = null;
+    private int[] bandEdges = null; // FIRST BIN OF EACH BAND, PLUS THE END
+
+    /**
+     * Magnitude spectrum of a Hann-windowed FFT over the analysis window
+     * @param bands Number of logarithmic bands from 20 Hz to Nyquist, 0 for the raw FFT bins
+     */
+    public SpectrumAnalyzer(int bands) {
+        this.bands = Math.max(0, bands);
+    }
+
+    @Override
+    public void configure(int sampleRate, int window) {
+        this.sampleRate = sampleRate;
+        fft = new FFT(window, new HannWindow());
+        fftData = new float[window];
+        magnitudes = new float[window / 2];
+
+        if (bands > 0) {
+            bandEdges = new int[bands + 1];
+            double binWidth = (double) sampleRate / window;
+            double ratio = Math.pow(sampleRate / 2.0 / MIN_BAND_FREQUENCY, 1.0 / bands);
+            for (int i = 0; i <= bands; i++) {
+                int bin = (int) Math.round(MIN_BAND_FREQUENCY * Math.pow(ratio, i) / binWidth);
+                bandEdges[i] = Math.max(1, Math.min(magnitudes.length, bin));
+            }
+        }
+    }
+
+    /**
+     * @return Map with magnitudes in dB relative to full scale, and either binWidth in Hz for raw bins
+     * or minFrequency / maxFrequency for logarithmic bands (the maximum bin of each band, narrow low bands take the bin at their lower edge)
+     */
+    @Override
+    public Map<String, Object> analyze(short[] ring, int start, int window) {
+        int mask = ring.length - 1;
+        for (int i = 0; i < window; i++) {
+            fftData[i] = ring[(start + i) & mask] / 32768f;
+        }
+        fft.forwardTransform(fftData);
+        fft.modulus(fftData, magnitudes);
+
+        // A full scale sine through a Hann window peaks at window / 4
+        float reference = window / 4f;
+        Map<String, Object> event = new HashMap<>();
+        if (bands == 0) {
+            float[] spectrum = new float[magnitudes.length];
+            for (int i = 0; i < spectrum.length; i++) {
+                spectrum[i] = toDb(magnitudes[i] / reference);
+            }
+            event.put("magnitudes", spectrum);
+            event.put("binWidth", (double) sampleRate / window);
+        } else {
+            float[] spectrum = new float[bands];
+            for (int b = 0; b < bands; b++) {
+                float max = 0;
+                for (int i = bandEdges[b]; i < Math.max(bandEdges[b] + 1, bandEdges[b + 1]) && i < magnitudes.length; i++) {
+                    max = Math.max(max, magnitudes[i]);
+                }
+                spectrum[b] = toDb(max / reference);
+            }
+            event.put("magnitudes", spectrum);
+            event.put("minFrequency", (double) MIN_BAND_FREQUENCY);
+            event.put("maxFrequency", sampleRate / 2.0);
+        }
+        return event;
+    }
+
+    private static float toDb(float magnitude) {
+        return (float) (20 * Math.log10(Math.max(magnitude, 1e-7f)));
+    }
+
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,59 @@
+package com.slins.flutterfft;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class StartupMetrics {
+    private volatile long startNanos = 0; // WHEN startRecorder WAS CALLED
+    private volatile long recordingNanos = 0; // WHEN THE RECORDER STARTED CAPTURING
+    private volatile long firstPitchNanos = 0; // WHEN THE FIRST PITCH PASSED THE CONFIDENCE FILTER
+    private volatile long prepareNanos = 0; // HOW LONG THE LAST prepare CALL TOOK
+    private volatile boolean usedPreparedPipeline = false;
+
+    /**
+     * Marks the beginning of a startRecorder call
+     * @param usedPreparedPipeline Whether the prepared recorder and detector were reused
+     */
+    public void markStart(boolean usedPreparedPipeline) {
+        this.usedPreparedPipeline = usedPreparedPipeline;
+        startNanos = System.nanoTime();
+        recordingNanos = 0;
+        firstPitchNanos = 0;
+    }
+
+    /**
+     * Marks the moment capture started, later calls such as a resume after pause are ignored
+     */
+    public void markRecording() {
+        if (recordingNanos == 0) {
+            recordingNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Marks the first pitch of the session, later calls are ignored
+     */
+    public void markFirstPitch() {
+        if (firstPitchNanos == 0 && startNanos != 0) {
+            firstPitchNanos = System.nanoTime();
+        }
+    }
+
+    public void setPrepareNanos(long prepareNanos) {
+        this.prepareNanos = prepareNanos;
+    }
+
+    /**
+     * Builds the metrics map sent back to Dart
+     * Durations are in milliseconds, -1 when the event did not happen yet
+     * @return Map with the startup metrics
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("prepareMillis", prepareNanos / 1e6);
+        metrics.put("timeToRecordingMillis", recordingNanos == 0 ? -1.0 : (recordingNanos - startNanos) / 1e6);
+        metrics.put("timeToFirstPitchMillis", firstPitchNanos == 0 ? -1.0 : (firstPitchNanos - startNanos) / 1e6);
+        metrics.put("usedPreparedPipeline", usedPreparedPipeline);
+        return metrics;
+    }
+}
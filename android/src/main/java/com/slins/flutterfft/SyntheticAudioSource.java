@@ -0,0 +1,87 @@
+package com.slins.flutterfft;
+
+import java.util.Random;
+
+public class SyntheticAudioSource extends PacedAudioSource {
+    public static final String WAVEFORM_SINE = "sine";
+    public static final String WAVEFORM_SAW = "saw";
+    public static final String WAVEFORM_STRINGS = "strings";
+
+    private static final int STRING_HARMONICS = 6;
+
+    private final int sampleRate;
+    private final String waveform;
+    private final float[] frequencies; // ONE OSCILLATOR PER FREQUENCY, SEVERAL FOR DETUNED STRINGS
+    private final double[] phases;
+    private final float amplitude; // PEAK AMPLITUDE IN 16-BIT UNITS
+    private final float noiseLevel; // WHITE NOISE AMPLITUDE RELATIVE TO THE SIGNAL
+    private final Random random;
+
+    /**
+     * Generates deterministic test signals as an audio source
+     * @param sampleRate Audio sample rate in Hz
+     * @param waveform One of sine, saw or strings
+     * @param frequency Fundamental frequency in Hz
+     * @param detuneCents Detune of the extra strings in cents, only used by the strings waveform
+     * @param noiseLevel White noise amplitude relative to the signal, 0 for a clean signal
+     * @param seed Seed of the noise generator, equal seeds give equal signals
+     * @param realTime Deliver samples at the sample rate instead of as fast as possible
+     */
+    public SyntheticAudioSource(int sampleRate, String waveform, float frequency, float detuneCents, float noiseLevel, long seed, boolean realTime) {
+        super(realTime);
+        this.sampleRate = sampleRate;
+        this.waveform = waveform;
+        this.amplitude = 8000;
+        this.noiseLevel = noiseLevel;
+        this.random = new Random(seed);
+
+        if (WAVEFORM_STRINGS.equals(waveform)) {
+            // Three unison strings, like a piano course or a 12-string pair, spread by the detune
+            float ratio = (float) Math.pow(2, detuneCents / 1200);
+            this.frequencies = new float[]{frequency, frequency * ratio, frequency / ratio};
+        } else {
+            this.frequencies = new float[]{frequency};
+        }
+        this.phases = new double[frequencies.length];
+    }
+
+    @Override
+    protected int generate(short[] audioData, int offset, int size) {
+        for (int i = 0; i < size; i++) {
+            double value = 0;
+
+            for (int osc = 0; osc < frequencies.length; osc++) {
+                double phase = phases[osc];
+
+                if (WAVEFORM_SAW.equals(waveform)) {
+                    value += phase / Math.PI - 1;
+                } else if (WAVEFORM_STRINGS.equals(waveform)) {
+                    for (int harmonic = 1; harmonic <= STRING_HARMONICS; harmonic++) {
+                        value += Math.sin(harmonic * phase) / harmonic;
+                    }
+                } else {
+                    value += Math.sin(phase);
+                }
+
+                phase += 2 * Math.PI * frequencies[osc] / sampleRate;
+                if (phase >= 2 * Math.PI) {
+                    phase -= 2 * Math.PI;
+                }
+                phases[osc] = phase;
+            }
+
+            value /= frequencies.length;
+            if (noiseLevel > 0) {
+                value += noiseLevel * (2 * random.nextDouble() - 1);
+            }
+
+            audioData[offset + i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value * amplitude)));
+        }
+        return size;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+}
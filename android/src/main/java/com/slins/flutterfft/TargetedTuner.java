@@ -0,0 +1,229 @@
+package com.slins.flutterfft;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchDetector;
+
+public class TargetedTuner implements PitchDetector {
+    public static final int DEFAULT_HARMONICS = 3;
+    public static final int SUB_BLOCKS = 4; // TARGETS ARE PICKED BY THEIR ENERGY IN EACH QUARTER OF THE FRAME
+    private static final float MIN_PROBABILITY = 0.1f; // SHARE OF THE FRAME ENERGY AT THE TARGET HARMONICS BELOW WHICH NOTHING IS PLAYED
+    private static final float MIN_FUNDAMENTAL_SHARE = 0.05f; // KEEPS A LOWER TARGET FROM CLAIMING A NOTE THROUGH ONE OF ITS HARMONICS
+
+    private final float sampleRate;
+    private final float[] targets;
+    private final int harmonics;
+    private final int blockSize; // LENGTH OF THE SUB-BLOCKS IN SAMPLES
+    private final int phaseLength; // LENGTH OF THE TWO WINDOWED PHASE BLOCKS, THREE QUARTERS OF THE FRAME
+    private final int phaseHop; // OFFSET OF THE SECOND PHASE BLOCK, ONE QUARTER OF THE FRAME
+    private final float[] phaseWindow; // HANN WINDOW OF THE PHASE BLOCKS
+
+    // PRECOMPUTED GOERTZEL COEFFICIENTS, [TARGET][HARMONIC], 0 FOR HARMONICS ABOVE NYQUIST
+    private final float[][] coefficients;
+    private final float[][] blockRotationCos; // UNDOES THE GOERTZEL OUTPUT ROTATION FOR ONE SUB-BLOCK
+    private final float[][] blockRotationSin;
+    private final float[][] phaseRotationCos; // SAME FOR ONE PHASE BLOCK
+    private final float[][] phaseRotationSin;
+
+    private final float[] blockReal = new float[SUB_BLOCKS];
+    private final float[] blockImaginary = new float[SUB_BLOCKS];
+    private final float[] phaseReal = new float[2];
+    private final float[] phaseImaginary = new float[2];
+    private final PitchDetectionResult result = new PitchDetectionResult();
+
+    /**
+     * Tuning detector that only looks at the target frequencies and their first harmonics
+     * The nearest target is picked by Goertzel energy over the whole frame, then the deviation comes from the phase advance
+     * of each harmonic between two overlapping blocks of the same frame, like a strobe tuner
+     * The blocks are Hann windowed, so the negative frequency of the harmonic does not leak into its phase even for a few cycles of low E
+     * Blocks of one frame are used instead of consecutive frames because frames are not contiguous when the subscription duration is longer than a frame
+     * @param sampleRate Audio sample rate in Hz
+     * @param frameSize Number of samples per frame
+     * @param targets Target frequencies of the tuning in Hz
+     * @param harmonics Number of harmonics per target, including the fundamental
+     */
+    public TargetedTuner(float sampleRate, int frameSize, float[] targets, int harmonics) {
+        this.sampleRate = sampleRate;
+        this.targets = targets.clone();
+        this.harmonics = Math.max(1, harmonics);
+        this.blockSize = frameSize / SUB_BLOCKS;
+        this.phaseHop = blockSize;
+        this.phaseLength = blockSize * (SUB_BLOCKS - 1);
+
+        phaseWindow = new float[phaseLength];
+        for (int i = 0; i < phaseLength; i++) {
+            phaseWindow[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (phaseLength - 1)));
+        }
+
+        coefficients = new float[targets.length][this.harmonics];
+        blockRotationCos = new float[targets.length][this.harmonics];
+        blockRotationSin = new float[targets.length][this.harmonics];
+        phaseRotationCos = new float[targets.length][this.harmonics];
+        phaseRotationSin = new float[targets.length][this.harmonics];
+
+        for (int t = 0; t < targets.length; t++) {
+            for (int h = 0; h < this.harmonics; h++) {
+                float frequency = targets[t] * (h + 1);
+                if (frequency >= sampleRate / 2) {
+                    continue;
+                }
+                double omega = 2 * Math.PI * frequency / sampleRate;
+                coefficients[t][h] = (float) (2 * Math.cos(omega));
+                blockRotationCos[t][h] = (float) Math.cos(omega * (blockSize - 1));
+                blockRotationSin[t][h] = (float) Math.sin(omega * (blockSize - 1));
+                phaseRotationCos[t][h] = (float) Math.cos(omega * (phaseLength - 1));
+                phaseRotationSin[t][h] = (float) Math.sin(omega * (phaseLength - 1));
+            }
+        }
+    }
+
+    @Override
+    public PitchDetectionResult getPitch(float[] audioBuffer) {
+        double frameEnergy = 0;
+        for (int i = 0; i < blockSize * SUB_BLOCKS; i++) {
+            frameEnergy += audioBuffer[i] * audioBuffer[i];
+        }
+
+        // Energies are summed over the sub-blocks, whose wider passband lets a string be found while it is still far off
+        int bestTarget = -1;
+        double bestEnergy = 0;
+        for (int t = 0; t < targets.length; t++) {
+            double fundamental = 0;
+            double energy = 0;
+            for (int h = 0; h < harmonics; h++) {
+                if (coefficients[t][h] != 0) {
+                    double power = blockPhases(audioBuffer, t, h);
+                    if (h == 0) {
+                        fundamental = power;
+                    }
+                    energy += power;
+                }
+            }
+            if (energy > bestEnergy && fundamental >= energy * MIN_FUNDAMENTAL_SHARE) {
+                bestEnergy = energy;
+                bestTarget = t;
+            }
+        }
+
+        // A pure tone on a bin puts blockSize / 2 times the block energy into |X|^2
+        float probability = frameEnergy == 0 ? 0 : (float) Math.min(1, 2 * bestEnergy / (blockSize * frameEnergy));
+        if (bestTarget == -1 || probability < MIN_PROBABILITY) {
+            result.setPitch(-1);
+            result.setProbability(probability);
+            result.setPitched(false);
+            return result;
+        }
+
+        float target = targets[bestTarget];
+        double hopDuration = phaseHop / sampleRate;
+        double maxDeviation = 0.5 / hopDuration; // FURTHER AWAY THE PHASE WRAPS AROUND
+
+        // Fundamental first, for unwrapping the harmonics whose phase moves h times faster
+        double deviation = 0;
+        double weightedDeviation = 0;
+        double weights = 0;
+        for (int h = 0; h < harmonics; h++) {
+            if (coefficients[bestTarget][h] == 0) {
+                continue;
+            }
+
+            windowedPhase(audioBuffer, bestTarget, h, 0, 0);
+            windowedPhase(audioBuffer, bestTarget, h, phaseHop, 1);
+
+            // Phase difference of the second block relative to the first, via X[1] * conj(X[0])
+            // Its magnitude weighs the harmonic, the windowed blocks keep the fundamental out of absent harmonics
+            double real = phaseReal[1] * phaseReal[0] + phaseImaginary[1] * phaseImaginary[0];
+            double imaginary = phaseImaginary[1] * phaseReal[0] - phaseReal[1] * phaseImaginary[0];
+            double advance = Math.atan2(imaginary, real);
+            double weight = Math.sqrt(real * real + imaginary * imaginary);
+
+            // Phase advance at the exact harmonic frequency, then the deviation from it
+            double expected = 2 * Math.PI * (h + 1) * (target + deviation) * hopDuration;
+            double residual = wrap(advance - expected);
+            double harmonicDeviation = deviation + residual / (2 * Math.PI * (h + 1) * hopDuration);
+
+            if (h == 0) {
+                deviation = harmonicDeviation;
+            }
+            weightedDeviation += harmonicDeviation * weight * (h + 1);
+            weights += weight * (h + 1);
+        }
+
+        if (weights > 0) {
+            deviation = weightedDeviation / weights;
+        }
+        deviation = Math.max(-maxDeviation, Math.min(maxDeviation, deviation));
+
+        result.setPitch((float) (target + deviation));
+        result.setProbability(probability);
+        result.setPitched(true);
+        return result;
+    }
+
+    /**
+     * Runs the Goertzel filter of one harmonic over each sub-block
+     * Leaves the complex outputs in blockReal / blockImaginary, referenced to the start of each block
+     * @return Power of the harmonic summed over the blocks
+     */
+    private double blockPhases(float[] audioBuffer, int target, int harmonic) {
+        float coefficient = coefficients[target][harmonic];
+        float halfCoefficient = coefficient / 2;
+        float sine = (float) Math.sqrt(Math.max(0, 1 - halfCoefficient * halfCoefficient));
+        double power = 0;
+
+        for (int b = 0; b < SUB_BLOCKS; b++) {
+            float previous = 0;
+            float previous2 = 0;
+            int start = b * blockSize;
+            for (int i = start; i < start + blockSize; i++) {
+                float current = audioBuffer[i] + coefficient * previous - previous2;
+                previous2 = previous;
+                previous = current;
+            }
+
+            // y = s[N-1] - e^(-jw) s[N-2] = e^(jw(N-1)) X, rotate back to get X
+            float yReal = previous - halfCoefficient * previous2;
+            float yImaginary = sine * previous2;
+            float rotationCos = blockRotationCos[target][harmonic];
+            float rotationSin = blockRotationSin[target][harmonic];
+            blockReal[b] = yReal * rotationCos + yImaginary * rotationSin;
+            blockImaginary[b] = yImaginary * rotationCos - yReal * rotationSin;
+            power += blockReal[b] * blockReal[b] + blockImaginary[b] * blockImaginary[b];
+        }
+        return power;
+    }
+
+    /**
+     * Runs the Goertzel filter of one harmonic over a Hann windowed phase block
+     * Leaves the complex output in phaseReal / phaseImaginary at index, referenced to the start of the block
+     */
+    private void windowedPhase(float[] audioBuffer, int target, int harmonic, int start, int index) {
+        float coefficient = coefficients[target][harmonic];
+        float halfCoefficient = coefficient / 2;
+        float sine = (float) Math.sqrt(Math.max(0, 1 - halfCoefficient * halfCoefficient));
+
+        float previous = 0;
+        float previous2 = 0;
+        for (int i = 0; i < phaseLength; i++) {
+            float current = audioBuffer[start + i] * phaseWindow[i] + coefficient * previous - previous2;
+            previous2 = previous;
+            previous = current;
+        }
+
+        float yReal = previous - halfCoefficient * previous2;
+        float yImaginary = sine * previous2;
+        float rotationCos = phaseRotationCos[target][harmonic];
+        float rotationSin = phaseRotationSin[target][harmonic];
+        phaseReal[index] = yReal * rotationCos + yImaginary * rotationSin;
+        phaseImaginary[index] = yImaginary * rotationCos - yReal * rotationSin;
+    }
+
+    private static double wrap(double phase) {
+        while (phase > Math.PI) {
+            phase -= 2 * Math.PI;
+        }
+        while (phase < -Math.PI) {
+            phase += 2 * Math.PI;
+        }
+        return phase;
+    }
+}
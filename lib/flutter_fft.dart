@@ -1,4 +1,5 @@
 import 'dart:async';
+import 'dart:typed_data';
 import 'package:flutter/services.dart';
 
 class FlutterFft {
@@ -6,6 +7,10 @@ class FlutterFft {
       const MethodChannel("com.slins.flutterfft/record");
   static const EventChannel _eventChannel =
       const EventChannel("com.slins.flutterfft/audio_stream");
+  static const EventChannel _chromaEventChannel =
+      const EventChannel("com.slins.flutterfft/chroma_stream");
+  static const EventChannel _analyzerEventChannel =
+      const EventChannel("com.slins.flutterfft/analyzer_stream");
 
   StreamController<List<Object>>? _recorderController;
   StreamSubscription? _eventSubscription;
@@ -32,10 +37,37 @@ class FlutterFft {
     return _recorderController!.stream;
   }
 
+  /**
+   * Returns the chroma stream, enabled with setChroma / setCqtBins before starting the recorder
+   * Each event holds "chroma" (12 values from C to B, strongest pitch class is 1),
+   * "processingMillis" and, when CQT bins are enabled, "cqt" (one magnitude per semitone) and "cqtMinFrequency"
+   * Notes whose constant-Q window does not fit in the frame are left out (below about 180 Hz for 4096 samples at 44.1 kHz)
+   * @return Stream<Map<String, dynamic>> containing pitch-class energy per frame
+   */
+  Stream<Map<String, dynamic>> get onChromaChanged {
+    return _chromaEventChannel
+        .receiveBroadcastStream()
+        .map((dynamic data) => Map<String, dynamic>.from(data));
+  }
+
+  /**
+   * Returns the events of every analyzer registered with addAnalyzer, tagged with "id", "type" and "captureTimeNanos"
+   * pitch: "frequency" (-1 without a pitch), "probability" and, with a pitch, "note", "octave", "cents"
+   * spectrum: "magnitudes" in dBFS and either "binWidth" or "minFrequency" / "maxFrequency" for logarithmic bands
+   * level: "rmsDb" and "peakDb" in dBFS
+   * @return Stream<Map<String, dynamic>> containing one event per analysis window
+   */
+  Stream<Map<String, dynamic>> get onAnalyzerEvent {
+    return _analyzerEventChannel
+        .receiveBroadcastStream()
+        .map((dynamic data) => Map<String, dynamic>.from(data));
+  }
+
   bool _isRecording = false;
   double _subscriptionDuration = 0.25;
   int _numChannels = 1;
   int _sampleRate = 44100;
+  bool _sampleRateSet = false;
   AndroidAudioSource _androidAudioSource = AndroidAudioSource.MIC;
   double _tolerance = 1.0;
   double _frequency = 0;
@@ -48,6 +80,32 @@ class FlutterFft {
   double _nearestDistance = 0;
   int _nearestOctave = 0;
   bool _isOnPitch = false;
+  double _confidence = 0;
+  int _captureTimeNanos = 0;
+  bool _emitOnChange = false;
+  double _centsThreshold = 1.0;
+  int _keepAliveMillis = 1000;
+  double _minConfidence = 0.0;
+  bool _chroma = false;
+  bool _cqtBins = false;
+  Map<String, dynamic>? _input;
+  bool _adaptiveRate = false;
+  int _activeIntervalMillis = 0;
+  int _idleIntervalMillis = 1000;
+  double _silenceThresholdDb = -50.0;
+  bool _silenceThresholdDbSet = false;
+  int _idleAfterMillis = 2000;
+  List<String> _detectors = ["yin"];
+  bool _targetedMode = false;
+  int _harmonics = 3;
+  int _historyCapacity = 1024;
+  bool _preFilter = false;
+  int _preFilterStages = 2;
+  bool _preFilterWindow = false;
+  int _decimation = 1;
+  int _smoothingFrames = 0;
+  bool _streamEvents = true;
+  bool _useCalibration = false;
   List<String> _tuning = ["E4", "B3", "G3", "D3", "A2", "E2"];
 
   // Getters
@@ -67,6 +125,31 @@ class FlutterFft {
   double get getNearestDistance => _nearestDistance;
   int get getNearestOctave => _nearestOctave;
   bool get getIsOnPitch => _isOnPitch;
+  double get getConfidence => _confidence;
+  int get getCaptureTimeNanos => _captureTimeNanos;
+  bool get getEmitOnChange => _emitOnChange;
+  double get getCentsThreshold => _centsThreshold;
+  int get getKeepAliveMillis => _keepAliveMillis;
+  double get getMinConfidence => _minConfidence;
+  bool get getChroma => _chroma;
+  bool get getCqtBins => _cqtBins;
+  Map<String, dynamic>? get getInput => _input;
+  bool get getAdaptiveRate => _adaptiveRate;
+  int get getActiveIntervalMillis => _activeIntervalMillis;
+  int get getIdleIntervalMillis => _idleIntervalMillis;
+  double get getSilenceThresholdDb => _silenceThresholdDb;
+  int get getIdleAfterMillis => _idleAfterMillis;
+  List<String> get getDetectors => _detectors;
+  bool get getTargetedMode => _targetedMode;
+  int get getHarmonics => _harmonics;
+  int get getHistoryCapacity => _historyCapacity;
+  bool get getPreFilter => _preFilter;
+  int get getPreFilterStages => _preFilterStages;
+  bool get getPreFilterWindow => _preFilterWindow;
+  int get getDecimation => _decimation;
+  int get getSmoothingFrames => _smoothingFrames;
+  bool get getStreamEvents => _streamEvents;
+  bool get getUseCalibration => _useCalibration;
   List<String> get getTuning => _tuning;
 
   // Setters
@@ -76,7 +159,10 @@ class FlutterFft {
   set setTolerance(double tolerance) => _tolerance = tolerance;
   set setFrequency(double frequency) => _frequency = frequency;
   set setNumChannels(int numChannels) => _numChannels = numChannels;
-  set setSampleRate(int sampleRate) => _sampleRate = sampleRate;
+  set setSampleRate(int sampleRate) {
+    _sampleRate = sampleRate;
+    _sampleRateSet = true;
+  }
   set setAndroidAudioSource(AndroidAudioSource androidAudioSource) =>
       _androidAudioSource = androidAudioSource;
   set setNote(String note) => _note = note;
@@ -89,6 +175,45 @@ class FlutterFft {
       _nearestDistance = nearestDistance;
   set setNearestOctave(int nearestOctave) => _nearestOctave = nearestOctave;
   set setIsOnPitch(bool isOnPitch) => _isOnPitch = isOnPitch;
+  set setConfidence(double confidence) => _confidence = confidence;
+  set setCaptureTimeNanos(int captureTimeNanos) =>
+      _captureTimeNanos = captureTimeNanos;
+  set setEmitOnChange(bool emitOnChange) => _emitOnChange = emitOnChange;
+  set setCentsThreshold(double centsThreshold) =>
+      _centsThreshold = centsThreshold;
+  set setKeepAliveMillis(int keepAliveMillis) =>
+      _keepAliveMillis = keepAliveMillis;
+  set setMinConfidence(double minConfidence) => _minConfidence = minConfidence;
+  set setChroma(bool chroma) => _chroma = chroma;
+  set setCqtBins(bool cqtBins) => _cqtBins = cqtBins;
+  set setInput(Map<String, dynamic>? input) => _input = input;
+  set setAdaptiveRate(bool adaptiveRate) => _adaptiveRate = adaptiveRate;
+  set setActiveIntervalMillis(int activeIntervalMillis) =>
+      _activeIntervalMillis = activeIntervalMillis;
+  set setIdleIntervalMillis(int idleIntervalMillis) =>
+      _idleIntervalMillis = idleIntervalMillis;
+  set setSilenceThresholdDb(double silenceThresholdDb) {
+    _silenceThresholdDb = silenceThresholdDb;
+    _silenceThresholdDbSet = true;
+  }
+  set setIdleAfterMillis(int idleAfterMillis) =>
+      _idleAfterMillis = idleAfterMillis;
+  set setDetectors(List<String> detectors) => _detectors = detectors;
+  set setTargetedMode(bool targetedMode) => _targetedMode = targetedMode;
+  set setHarmonics(int harmonics) => _harmonics = harmonics;
+  set setHistoryCapacity(int historyCapacity) =>
+      _historyCapacity = historyCapacity;
+  set setPreFilter(bool preFilter) => _preFilter = preFilter;
+  set setPreFilterStages(int preFilterStages) =>
+      _preFilterStages = preFilterStages;
+  set setPreFilterWindow(bool preFilterWindow) =>
+      _preFilterWindow = preFilterWindow;
+  set setDecimation(int decimation) => _decimation = decimation;
+  set setSmoothingFrames(int smoothingFrames) =>
+      _smoothingFrames = smoothingFrames;
+  set setStreamEvents(bool streamEvents) => _streamEvents = streamEvents;
+  set setUseCalibration(bool useCalibration) =>
+      _useCalibration = useCalibration;
   set setTuning(List<String> tuning) => _tuning = tuning;
 
   /**
@@ -173,6 +298,160 @@ class FlutterFft {
     await _channel.invokeMethod("requestPermission");
   }
 
+  /**
+   * Prepares the recorder and pitch detector ahead of startRecorder
+   * Builds the note table, allocates buffers and warms the detector so the first reading arrives sooner
+   * Has to be called again if the configuration changes before starting the recorder
+   * @return Future<String> Success message or throws exception
+   */
+  Future<String> prepare() async {
+    if (this.getIsRecording) {
+      throw RecorderRunningException("Recorder is already running.");
+    }
+
+    String result = await _channel.invokeMethod('prepare', <String, dynamic>{
+      'tuning': this.getTuning,
+      'numChannels': this.getNumChannels,
+      'sampleRate': _sampleRateSet ? this.getSampleRate : null,
+      'androidAudioSource': this.getAndroidAudioSource.value,
+      'tolerance': this.getTolerance,
+      'detectors': this.getDetectors,
+      'useCalibration': this.getUseCalibration,
+    });
+
+    return result;
+  }
+
+  /**
+   * Measures the noise floor, DC offset and best native sample rate of the current android audio source and stores the profile on the device
+   * Needs the microphone permission and a stopped recorder, the input has to stay silent while it runs
+   * Only needed once per device, input source and channel count, sessions started with useCalibration apply the stored profile from the first frame
+   * The calibrated sample rate and silence threshold are only used while setSampleRate and setSilenceThresholdDb were not called
+   * A recorder opened by prepare is released, call prepare again afterwards
+   * Keys: androidAudioSource, numChannels, sampleRate, noiseFloorDb, dcOffset, gateThresholdDb, calibratedAtMillis
+   * @param durationMillis Length of the measurement
+   * @return Future<Map<String, dynamic>> The stored profile
+   */
+  Future<Map<String, dynamic>> calibrate({int durationMillis = 1500}) async {
+    if (this.getIsRecording) {
+      throw RecorderRunningException("Recorder is already running.");
+    }
+
+    Map<dynamic, dynamic> profile =
+        await _channel.invokeMethod("calibrate", <String, dynamic>{
+      'androidAudioSource': this.getAndroidAudioSource.value,
+      'numChannels': this.getNumChannels,
+      'durationMillis': durationMillis,
+    });
+    return Map<String, dynamic>.from(profile);
+  }
+
+  /**
+   * Returns the stored calibration profile of the current android audio source and channel count, see calibrate for the keys
+   * @return Future<Map<String, dynamic>?> The profile, or null if the source was never calibrated
+   */
+  Future<Map<String, dynamic>?> getCalibration() async {
+    Map<dynamic, dynamic>? profile = await _channel.invokeMethod(
+        "getCalibration", <String, dynamic>{
+      'androidAudioSource': this.getAndroidAudioSource.value,
+      'numChannels': this.getNumChannels,
+    });
+    return (profile != null) ? Map<String, dynamic>.from(profile) : null;
+  }
+
+  /**
+   * Removes the stored calibration profile of the current android audio source and channel count, for example after the input hardware changed
+   * @return Future<bool> Whether a profile was removed
+   */
+  Future<bool> clearCalibration() async {
+    bool result = await _channel.invokeMethod("clearCalibration", <String, dynamic>{
+      'androidAudioSource': this.getAndroidAudioSource.value,
+      'numChannels': this.getNumChannels,
+    });
+    return result;
+  }
+
+  /**
+   * Returns startup latency metrics of the last recorder session
+   * Keys: prepareMillis, timeToRecordingMillis, timeToFirstPitchMillis, usedPreparedPipeline
+   * Durations are -1 when the event did not happen yet
+   * @return Future<Map<String, dynamic>> Startup metrics
+   */
+  Future<Map<String, dynamic>> getStartupMetrics() async {
+    Map<dynamic, dynamic> metrics =
+        await _channel.invokeMethod("getStartupMetrics");
+    return Map<String, dynamic>.from(metrics);
+  }
+
+  /**
+   * Returns capture-to-dispatch latency statistics of the current recorder session
+   * Keys: count, p50Millis, p90Millis, p99Millis, maxMillis (percentiles over the last 512 events, -1 if none)
+   * Latency is measured from the capture time of the first sample of a frame to the moment the event is sent
+   * @return Future<Map<String, dynamic>> Latency statistics
+   */
+  Future<Map<String, dynamic>> getLatencyStats() async {
+    Map<dynamic, dynamic> stats = await _channel.invokeMethod("getLatencyStats");
+    return Map<String, dynamic>.from(stats);
+  }
+
+  /**
+   * Returns the timing of each stage of the native processor chain of the current session, in chain order
+   * Stages (dc, fanout, gate, filter, convert, chroma, decimate, detect, smooth, map, history, encode, dispatch) are only present when used
+   * Each value holds count, meanMillis, maxMillis and lastMillis, later stages only count the frames that reached them
+   * @return Future<Map<String, dynamic>> Stage timings
+   */
+  Future<Map<String, dynamic>> getStageTimings() async {
+    Map<dynamic, dynamic> timings =
+        await _channel.invokeMethod("getStageTimings");
+    return timings.map((key, value) =>
+        MapEntry(key as String, Map<String, dynamic>.from(value)));
+  }
+
+  /**
+   * Registers an analyzer on the shared capture, it reads the same microphone frames as the recorder without another read
+   * Analyzers stay registered across recorder sessions and only run while the recorder is running
+   * @param id Id the events are tagged with, an analyzer with the same id is replaced
+   * @param type "pitch", "spectrum" or "level"
+   * @param window Number of samples per analysis window
+   * @param hop Number of samples between consecutive windows, defaults to the window
+   * @param options pitch: {"detectors": ["yin"]}, spectrum: {"bands": 64} for logarithmic bands instead of FFT bins
+   * @return Future<String> Success message
+   */
+  Future<String> addAnalyzer(String id, String type,
+      {int window = 2048, int? hop, Map<String, dynamic>? options}) async {
+    String result = await _channel.invokeMethod("addAnalyzer", <String, dynamic>{
+      'id': id,
+      'type': type,
+      'window': window,
+      'hop': hop ?? window,
+      'options': options,
+    });
+    return result;
+  }
+
+  /**
+   * Unregisters an analyzer added with addAnalyzer
+   * @param id Id of the analyzer
+   * @return Future<bool> Whether an analyzer was removed
+   */
+  Future<bool> removeAnalyzer(String id) async {
+    bool result = await _channel
+        .invokeMethod("removeAnalyzer", <String, dynamic>{'id': id});
+    return result;
+  }
+
+  /**
+   * Returns the detected frames kept natively, oldest first, so a graph can poll at display rate
+   * Packed as [captureTimeNanos, frequency, cents, confidence] per frame, cents being relative to the target
+   * @param sinceTimestamp Only frames captured after this capture time are returned, 0 returns the whole history
+   * @return Future<Float64List> Packed frames, 4 values per frame
+   */
+  Future<Float64List> getPitchHistory([int sinceTimestamp = 0]) async {
+    Float64List history = await _channel.invokeMethod(
+        "getPitchHistory", <String, dynamic>{'sinceTimestamp': sinceTimestamp});
+    return history;
+  }
+
   /**
    * Starts the audio recorder with current configuration
    * Sets subscription duration and begins audio processing
@@ -197,9 +476,33 @@ class FlutterFft {
           await _channel.invokeMethod('startRecorder', <String, dynamic>{
         'tuning': this.getTuning,
         'numChannels': this.getNumChannels,
-        'sampleRate': this.getSampleRate,
+        'sampleRate': _sampleRateSet ? this.getSampleRate : null,
         'androidAudioSource': this.getAndroidAudioSource.value,
         'tolerance': this.getTolerance,
+        'detectors': this.getDetectors,
+        'emitOnChange': this.getEmitOnChange,
+        'centsThreshold': this.getCentsThreshold,
+        'keepAliveMillis': this.getKeepAliveMillis,
+        'minConfidence': this.getMinConfidence,
+        'chroma': this.getChroma,
+        'cqtBins': this.getCqtBins,
+        'input': this.getInput,
+        'adaptiveRate': this.getAdaptiveRate,
+        'activeIntervalMillis': this.getActiveIntervalMillis,
+        'idleIntervalMillis': this.getIdleIntervalMillis,
+        'silenceThresholdDb':
+            _silenceThresholdDbSet ? this.getSilenceThresholdDb : null,
+        'idleAfterMillis': this.getIdleAfterMillis,
+        'targetedMode': this.getTargetedMode,
+        'harmonics': this.getHarmonics,
+        'historyCapacity': this.getHistoryCapacity,
+        'preFilter': this.getPreFilter,
+        'preFilterStages': this.getPreFilterStages,
+        'preFilterWindow': this.getPreFilterWindow,
+        'decimation': this.getDecimation,
+        'smoothingFrames': this.getSmoothingFrames,
+        'streamEvents': this.getStreamEvents,
+        'useCalibration': this.getUseCalibration,
       });
 
       this.setIsRecording = true;
@@ -231,6 +534,7 @@ class FlutterFft {
 
   /**
    * Temporarily pauses audio processing to prevent feedback during sound playback
+   * On Android the capture is stopped while the recorder stays initialized, so a paused recorder uses almost no CPU
    * @return Future<String> Success message
    */
   Future<String> pauseAudioProcessing() async {